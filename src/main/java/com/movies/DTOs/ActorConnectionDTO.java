@@ -0,0 +1,64 @@
+package com.movies.DTOs;
+
+import java.util.List;
+
+// Shortest chain of shared movies between two actors; path alternates actor and movie steps, from one actor to the other
+public class ActorConnectionDTO {
+    private final Long fromActorId;
+    private final Long toActorId;
+    private final boolean connected;
+    private final Integer degrees;
+    private final List<Step> path;
+
+    public ActorConnectionDTO(Long fromActorId, Long toActorId, boolean connected, Integer degrees, List<Step> path) {
+        this.fromActorId = fromActorId;
+        this.toActorId = toActorId;
+        this.connected = connected;
+        this.degrees = degrees;
+        this.path = path;
+    }
+
+    public Long getFromActorId() {
+        return fromActorId;
+    }
+
+    public Long getToActorId() {
+        return toActorId;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public Integer getDegrees() {
+        return degrees;
+    }
+
+    public List<Step> getPath() {
+        return path;
+    }
+
+    public static class Step {
+        private final String type;
+        private final Long id;
+        private final String name;
+
+        public Step(String type, Long id, String name) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
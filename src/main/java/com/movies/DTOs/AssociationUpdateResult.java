@@ -0,0 +1,26 @@
+package com.movies.DTOs;
+
+// Outcome of a bulk change of a movie's actors or genres
+public class AssociationUpdateResult {
+    private final Long movieId;
+    private final int added;
+    private final int removed;
+
+    public AssociationUpdateResult(Long movieId, int added, int removed) {
+        this.movieId = movieId;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+}
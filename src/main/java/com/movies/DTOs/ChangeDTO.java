@@ -0,0 +1,40 @@
+package com.movies.DTOs;
+
+import java.time.Instant;
+
+// One entry of the change feed: which entity changed, how, and its position in the feed
+public class ChangeDTO {
+    private final long seq;
+    private final String entityType;
+    private final Long entityId;
+    private final String changeType;
+    private final Instant changedAt;
+
+    public ChangeDTO(long seq, String entityType, Long entityId, String changeType, Instant changedAt) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
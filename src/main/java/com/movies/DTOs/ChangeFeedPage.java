@@ -0,0 +1,35 @@
+package com.movies.DTOs;
+
+import java.util.List;
+
+// A page of the change feed. nextSince is the since value for the following request; resyncRequired means deletions
+// the client has not seen were compacted away, so it has to reload the catalog and continue from nextSince
+public class ChangeFeedPage {
+    private final List<ChangeDTO> changes;
+    private final long nextSince;
+    private final boolean hasMore;
+    private final boolean resyncRequired;
+
+    public ChangeFeedPage(List<ChangeDTO> changes, long nextSince, boolean hasMore, boolean resyncRequired) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+        this.resyncRequired = resyncRequired;
+    }
+
+    public List<ChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+}
@@ -0,0 +1,26 @@
+package com.movies.DTOs;
+
+// An actor reachable from another through shared movies, with the number of co-star hops between them
+public class CoStarDTO {
+    private final Long id;
+    private final String name;
+    private final int distance;
+
+    public CoStarDTO(Long id, String name, int distance) {
+        this.id = id;
+        this.name = name;
+        this.distance = distance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,32 @@
+package com.movies.DTOs;
+
+// Movie count and average duration of one genre's or actor's movies
+public class EntityStats {
+    private final Long id;
+    private final String name;
+    private final long movieCount;
+    private final double averageDuration;
+
+    public EntityStats(Long id, String name, long movieCount, double averageDuration) {
+        this.id = id;
+        this.name = name;
+        this.movieCount = movieCount;
+        this.averageDuration = averageDuration;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMovieCount() {
+        return movieCount;
+    }
+
+    public double getAverageDuration() {
+        return averageDuration;
+    }
+}
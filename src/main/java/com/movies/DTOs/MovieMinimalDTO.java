@@ -17,6 +17,14 @@ public class MovieMinimalDTO {
         this.duration = movie.getDuration();
     }
 
+    // Constructor used by the JPQL projection queries in MovieRepository
+    public MovieMinimalDTO(Long id, String title, int releaseYear, int duration) {
+        this.id = id;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.duration = duration;
+    }
+
     // Getters and Setters
 
     public Long getId() {
@@ -0,0 +1,22 @@
+package com.movies.DTOs;
+
+import java.util.List;
+
+// Result of a multi-get (?ids=...): the found entities in request order, plus the ids that do not exist
+public class MultiGetResponse<T> {
+    private final List<T> items;
+    private final List<Long> missingIds;
+
+    public MultiGetResponse(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+}
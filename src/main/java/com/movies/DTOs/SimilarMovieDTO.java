@@ -0,0 +1,44 @@
+package com.movies.DTOs;
+
+// A movie similar to another, with the Jaccard similarity of their combined cast and genre sets
+public class SimilarMovieDTO {
+    private final Long id;
+    private final String title;
+    private final int releaseYear;
+    private final double similarity;
+    private final int sharedActors;
+    private final int sharedGenres;
+
+    public SimilarMovieDTO(Long id, String title, int releaseYear, double similarity, int sharedActors, int sharedGenres) {
+        this.id = id;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.similarity = similarity;
+        this.sharedActors = sharedActors;
+        this.sharedGenres = sharedGenres;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public int getSharedActors() {
+        return sharedActors;
+    }
+
+    public int getSharedGenres() {
+        return sharedGenres;
+    }
+}
@@ -0,0 +1,26 @@
+package com.movies.DTOs;
+
+// One autocomplete entry: a movie title or an actor name
+public class SuggestionDTO {
+    private final String type;
+    private final Long id;
+    private final String name;
+
+    public SuggestionDTO(String type, Long id, String name) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,26 @@
+package com.movies.DTOs;
+
+// Movie count and average duration of the movies released in one year
+public class YearStats {
+    private final int releaseYear;
+    private final long movieCount;
+    private final double averageDuration;
+
+    public YearStats(int releaseYear, long movieCount, double averageDuration) {
+        this.releaseYear = releaseYear;
+        this.movieCount = movieCount;
+        this.averageDuration = averageDuration;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public long getMovieCount() {
+        return movieCount;
+    }
+
+    public double getAverageDuration() {
+        return averageDuration;
+    }
+}
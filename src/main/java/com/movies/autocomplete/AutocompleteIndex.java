@@ -0,0 +1,371 @@
+package com.movies.autocomplete;
+
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogIndexWorker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over movie titles and actor names. Every word start of a folded name (lower case, accents and
+ * punctuation removed) is a key in one sorted array, so "mat" finds "The Matrix"; a query is a binary search plus a
+ * scan of the matching range, without touching the database. Names and popularity (cast size for movies, number of
+ * movies for actors) sit in int and String arrays indexed by id. Committed changes are patched in by a background
+ * thread: renamed and new items go into a small sorted overlay and their old keys are skipped, and the arrays are
+ * rebuilt from scratch once the overlay grows past the compaction threshold. A prefix matching more keys than one query
+ * scans (typically one or two letters) is answered from its most popular items, listed at the last rebuild.
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    public enum Kind { MOVIE, ACTOR }
+
+    public record Suggestion(Kind kind, int id, String name, int popularity) {
+    }
+
+    // Bounds the keys one query scans; prefixes matching more keys get a precomputed list of their most popular items
+    private static final int MAX_SCAN = 20_000;
+    // Covers the largest limit with room for listed items that were renamed or deleted since the rebuild
+    private static final int CROWDED_PREFIX_ITEMS = 100;
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingInt(Suggestion::popularity).reversed()
+            .thenComparing(Suggestion::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Suggestion::kind)
+            .thenComparingInt(Suggestion::id);
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final String MOVIE_ROWS = "select m.id, m.title, count(ma.actor_id) from movie m "
+            + "left join movie_actor ma on ma.movie_id = m.id";
+    private static final String ACTOR_ROWS = "select a.id, a.name, count(ma.movie_id) from actor a "
+            + "left join movie_actor ma on ma.actor_id = a.id";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2), rs.getInt(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactThreshold;
+    private final CatalogIndexWorker worker =
+            new CatalogIndexWorker("Autocomplete index", "autocomplete-index", logger, this::rebuild);
+    private volatile Snapshot snapshot =
+            new Snapshot(new String[0], new int[0], new byte[0], new Items(), new Items(), Map.of());
+
+    private record Row(long id, String name, int popularity) {
+    }
+
+    // Names and popularity of one kind, indexed by id. Only the worker thread writes: elements through the atomic
+    // arrays, so queries see them without a lock, and grown arrays are published whole
+    private static final class Items {
+        volatile AtomicReferenceArray<String> names = new AtomicReferenceArray<>(0);
+        volatile AtomicIntegerArray popularity = new AtomicIntegerArray(0);
+
+        String name(int id) {
+            AtomicReferenceArray<String> current = names;
+            return id < current.length() ? current.get(id) : null;
+        }
+
+        int popularity(int id) {
+            AtomicIntegerArray current = popularity;
+            return id < current.length() ? current.get(id) : 0;
+        }
+
+        void set(int id, String name, int itemPopularity) {
+            if (id >= names.length()) {
+                if (name == null) {
+                    return;
+                }
+                int capacity = Math.max(id + 1, names.length() + (names.length() >> 1));
+                AtomicIntegerArray grownPopularity = new AtomicIntegerArray(capacity);
+                AtomicReferenceArray<String> grownNames = new AtomicReferenceArray<>(capacity);
+                for (int i = 0; i < names.length(); i++) {
+                    grownPopularity.set(i, popularity.get(i));
+                    grownNames.set(i, names.get(i));
+                }
+                popularity = grownPopularity;
+                names = grownNames;
+            }
+            popularity.set(id, itemPopularity);
+            names.set(id, name);
+        }
+    }
+
+    // Sorted keys with the item each belongs to, plus the changes patched in since they were built
+    private static final class Snapshot {
+        final String[] keys;
+        final int[] ids;
+        final byte[] kinds;
+        final Items[] items;
+        // Most popular items of each prefix matching more than MAX_SCAN keys, as of the rebuild
+        final Map<String, long[]> crowdedPrefixes;
+        final ConcurrentSkipListMap<String, Long> patchedKeys = new ConcurrentSkipListMap<>();
+        // Items whose keys in the sorted array no longer match their name
+        final Set<Long> stale = ConcurrentHashMap.newKeySet();
+        final Map<Long, List<String>> patchedKeysByItem = new HashMap<>();
+
+        Snapshot(String[] keys, int[] ids, byte[] kinds, Items movies, Items actors, Map<String, long[]> crowdedPrefixes) {
+            this.keys = keys;
+            this.ids = ids;
+            this.kinds = kinds;
+            this.items = new Items[]{movies, actors};
+            this.crowdedPrefixes = crowdedPrefixes;
+        }
+    }
+
+    public AutocompleteIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                             @Value("${movies.autocomplete.compact-threshold:1000}") int compactThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactThreshold = compactThreshold;
+        Gauge.builder("movies.autocomplete.keys", this, index -> index.snapshot.keys.length + index.snapshot.patchedKeys.size())
+                .description("Word-start keys in the autocomplete index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws InterruptedException, ExecutionException {
+        worker.rebuildNow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.GENRE || event.getId() > Integer.MAX_VALUE) {
+            return;
+        }
+        Kind kind = event.getEntityType() == CatalogChangeEvent.EntityType.MOVIE ? Kind.MOVIE : Kind.ACTOR;
+        boolean linksChanged = event.getChangeType() == CatalogChangeEvent.ChangeType.LINKS_CHANGED;
+        // Link changes only move popularity; they are queued apart so a rename of the same movie is not swallowed
+        long item = item(kind, (int) event.getId()) | (linksChanged ? 1L << 62 : 0);
+        worker.submit(item, kind + " " + event.getId(), () -> refresh(kind, (int) event.getId(), linksChanged));
+    }
+
+    private static long item(Kind kind, int id) {
+        return (long) kind.ordinal() << 32 | id;
+    }
+
+    // Worker thread only
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        Items movies = new Items();
+        Items actors = new Items();
+        List<String> keys = new ArrayList<>();
+        List<Long> owners = new ArrayList<>();
+        for (Kind kind : Kind.values()) {
+            Items items = kind == Kind.MOVIE ? movies : actors;
+            String sql = (kind == Kind.MOVIE ? MOVIE_ROWS + " group by m.id" : ACTOR_ROWS + " group by a.id");
+            for (Row row : jdbcTemplate.query(sql, ROW_MAPPER)) {
+                if (row.id() <= Integer.MAX_VALUE) {
+                    items.set((int) row.id(), row.name(), row.popularity());
+                    for (String key : keysOf(row.name())) {
+                        keys.add(key);
+                        owners.add(item(kind, (int) row.id()));
+                    }
+                }
+            }
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(keys::get));
+        String[] sortedKeys = new String[order.length];
+        int[] ids = new int[order.length];
+        byte[] kinds = new byte[order.length];
+        for (int i = 0; i < order.length; i++) {
+            long owner = owners.get(order[i]);
+            sortedKeys[i] = keys.get(order[i]);
+            ids[i] = (int) owner;
+            kinds[i] = (byte) (owner >>> 32);
+        }
+        Items[] items = {movies, actors};
+        snapshot = new Snapshot(sortedKeys, ids, kinds, movies, actors, crowdedPrefixes(sortedKeys, ids, kinds, items));
+        logger.info("Autocomplete index built: {} keys in {} ms", sortedKeys.length, System.currentTimeMillis() - start);
+    }
+
+    // Each prefix's keys are one run of the sorted array, and a longer prefix's run lies within a shorter one's, so
+    // prefix lengths are tried in turn until no run is longer than MAX_SCAN
+    private static Map<String, long[]> crowdedPrefixes(String[] keys, int[] ids, byte[] kinds, Items[] items) {
+        Map<String, long[]> crowded = new HashMap<>();
+        for (int length = 1; ; length++) {
+            boolean found = false;
+            int start = 0;
+            while (start < keys.length) {
+                if (keys[start].length() < length) {
+                    start++;
+                    continue;
+                }
+                String prefix = keys[start].substring(0, length);
+                int end = start + 1;
+                while (end < keys.length && keys[end].startsWith(prefix)) {
+                    end++;
+                }
+                if (end - start > MAX_SCAN) {
+                    Set<Long> matched = new HashSet<>();
+                    for (int i = start; i < end; i++) {
+                        matched.add((long) kinds[i] << 32 | ids[i]);
+                    }
+                    crowded.put(prefix, mostPopular(items, matched, CROWDED_PREFIX_ITEMS).stream()
+                            .mapToLong(suggestion -> item(suggestion.kind(), suggestion.id())).toArray());
+                    found = true;
+                }
+                start = end;
+            }
+            if (!found) {
+                return crowded;
+            }
+        }
+    }
+
+    // Worker thread only: re-reads the item's name and popularity; after a link change also the popularity of the
+    // movie's current actors (actors that left the cast keep their old count until the next rebuild)
+    private void refresh(Kind kind, int id, boolean linksChanged) {
+        Snapshot current = snapshot;
+        if (kind == Kind.MOVIE) {
+            apply(current, Kind.MOVIE, id, jdbcTemplate.query(MOVIE_ROWS + " where m.id = ? group by m.id", ROW_MAPPER, id));
+            if (linksChanged) {
+                for (Row row : jdbcTemplate.query(ACTOR_ROWS + " where a.id in (select actor_id from movie_actor where movie_id = ?) "
+                        + "group by a.id", ROW_MAPPER, id)) {
+                    apply(current, Kind.ACTOR, (int) row.id(), List.of(row));
+                }
+            }
+        } else {
+            apply(current, Kind.ACTOR, id, jdbcTemplate.query(ACTOR_ROWS + " where a.id = ? group by a.id", ROW_MAPPER, id));
+        }
+        if (current.patchedKeys.size() + current.stale.size() > compactThreshold) {
+            rebuild();
+        }
+    }
+
+    private static void apply(Snapshot current, Kind kind, int id, List<Row> rows) {
+        Items items = current.items[kind.ordinal()];
+        String previousName = items.name(id);
+        String name = rows.isEmpty() ? null : rows.get(0).name();
+        items.set(id, name, rows.isEmpty() ? 0 : rows.get(0).popularity());
+        if (Objects.equals(name, previousName)) {
+            return;
+        }
+        long item = item(kind, id);
+        current.stale.add(item);
+        List<String> previousKeys = current.patchedKeysByItem.remove(item);
+        if (previousKeys != null) {
+            previousKeys.forEach(current.patchedKeys::remove);
+        }
+        if (name != null) {
+            // The item is appended so that equal keys of different items stay distinct
+            List<String> patched = keysOf(name).stream().map(key -> key + '\u0000' + item).toList();
+            patched.forEach(key -> current.patchedKeys.put(key, item));
+            current.patchedKeysByItem.put(item, patched);
+        }
+    }
+
+    static String fold(String text) {
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    // The folded name from each word start on
+    static List<String> keysOf(String name) {
+        String folded = fold(name);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * Movies and actors with a word in their name starting with the query (several words match consecutive words),
+     * most popular first, then by name. Empty if the query has no letters or digits. For a prefix matching more than
+     * MAX_SCAN keys the candidates are its most popular items at the last rebuild plus the items changed since, so an
+     * item whose popularity grew since then only shows up there after the next rebuild.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = fold(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        Set<Long> matched = new HashSet<>();
+        int from = lowerBound(current.keys, prefix);
+        int to = lowerBound(current.keys, prefix + Character.MAX_VALUE);
+        long[] crowded = to - from > MAX_SCAN ? current.crowdedPrefixes.get(prefix) : null;
+        if (crowded != null) {
+            for (long item : crowded) {
+                if (!current.stale.contains(item)) {
+                    matched.add(item);
+                }
+            }
+        } else {
+            for (int i = from; i < Math.min(to, from + MAX_SCAN); i++) {
+                long item = (long) current.kinds[i] << 32 | current.ids[i];
+                if (!current.stale.contains(item)) {
+                    matched.add(item);
+                }
+            }
+        }
+        int scanned = 0;
+        for (Long item : current.patchedKeys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (scanned++ == MAX_SCAN) {
+                break;
+            }
+            matched.add(item);
+        }
+        return mostPopular(current.items, matched, limit);
+    }
+
+    private static List<Suggestion> mostPopular(Items[] items, Collection<Long> matched, int limit) {
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (long item : matched) {
+            Kind kind = Kind.values()[(int) (item >>> 32)];
+            int id = (int) item;
+            Items ofKind = items[kind.ordinal()];
+            String name = ofKind.name(id);
+            if (name != null) {
+                best.add(new Suggestion(kind, id, name, ofKind.popularity(id)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Suggestion> suggestions = new ArrayList<>(best);
+        suggestions.sort(RANKING);
+        return suggestions;
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
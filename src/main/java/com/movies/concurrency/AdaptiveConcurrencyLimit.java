@@ -0,0 +1,116 @@
+package com.movies.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient algorithm of Netflix's concurrency-limits.
+ * Latencies are averaged over short windows and compared with a long-term average: while they stay close the limit
+ * grows by about its square root per window (only when requests actually use at least half of it), and once the
+ * recent latency passes the long-term one times the tolerance the limit shrinks in proportion, by half at most. The
+ * long-term average slowly follows the recent one, so a lasting change in speed becomes the new baseline. Admission
+ * is one CAS on the in-flight count; the window bookkeeping is a short synchronized section per completed request.
+ */
+class AdaptiveConcurrencyLimit {
+
+    // Weight of one window in the long-term average (about the last 100 windows)
+    private static final double LONG_TERM_WEIGHT = 2.0 / 101;
+    // Weight of each new estimate in the limit, so one noisy window cannot swing it
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longTermRtt;
+    private long windowStart;
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos, LongSupplier clock) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= initial <= max and a tolerance of at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStart = clock.getAsLong();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Takes a slot, or returns -1 when the limit is reached; otherwise the number in flight including this one
+    int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    // Frees the slot without a latency sample (requests whose duration says nothing about the backend)
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        sample(rttNanos, inFlightAtStart);
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtStart) {
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        long now = clock.getAsLong();
+        if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+
+        double shortTermRtt = (double) windowRttSum / windowSamples;
+        if (longTermRtt == 0) {
+            longTermRtt = shortTermRtt;
+        } else {
+            longTermRtt += (shortTermRtt - longTermRtt) * LONG_TERM_WEIGHT;
+            // After a long slow period the baseline is too high to react to the next one; let it come back down faster
+            if (longTermRtt > 2 * shortTermRtt) {
+                longTermRtt *= 0.95;
+            }
+        }
+        boolean appLimited = windowMaxInFlight < estimatedLimit / 2;
+        windowStart = now;
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermRtt / shortTermRtt));
+        if (appLimited && gradient == 1.0) {
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + (gradient == 1.0 ? Math.sqrt(estimatedLimit) : 0);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,125 @@
+package com.movies.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Load shedding for /api requests. Reads (GET, HEAD, OPTIONS) and writes each have an AdaptiveConcurrencyLimit, so
+ * a flood of one kind cannot crowd out the other and each limit follows its own latency; writes, which queue on
+ * SQLite's single writer lock, get a separate and smaller one. Logins (/api/auth) spend their time hashing passwords,
+ * not in the database, so they have a third limit and cannot use up the writers' slots or skew their latency. A
+ * request over its limit is answered with 503 at once, before authentication or any query, instead of waiting for a
+ * Tomcat thread and the database. Runs just after QueryBudgetFilter and ahead of the security filters.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/auth/";
+    private static final byte[] OVERLOADED_BODY = "{\"error\":\"The service is overloaded, please retry shortly.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final AdaptiveConcurrencyLimit authLimit;
+    private final Counter readsShed;
+    private final Counter writesShed;
+    private final Counter authShed;
+
+    @Autowired
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${movies.concurrency.limit.enabled:true}") boolean enabled,
+                                  @Value("${movies.concurrency.limit.read.initial:50}") int readInitial,
+                                  @Value("${movies.concurrency.limit.read.min:4}") int readMin,
+                                  @Value("${movies.concurrency.limit.read.max:180}") int readMax,
+                                  @Value("${movies.concurrency.limit.write.initial:8}") int writeInitial,
+                                  @Value("${movies.concurrency.limit.write.min:1}") int writeMin,
+                                  @Value("${movies.concurrency.limit.write.max:20}") int writeMax,
+                                  @Value("${movies.concurrency.limit.auth.initial:8}") int authInitial,
+                                  @Value("${movies.concurrency.limit.auth.min:2}") int authMin,
+                                  @Value("${movies.concurrency.limit.auth.max:32}") int authMax,
+                                  @Value("${movies.concurrency.limit.tolerance:2.0}") double tolerance,
+                                  @Value("${movies.concurrency.limit.window:PT0.1S}") Duration window) {
+        this.enabled = enabled;
+        this.readLimit = new AdaptiveConcurrencyLimit(readInitial, readMin, readMax, tolerance, window.toNanos(), System::nanoTime);
+        this.writeLimit = new AdaptiveConcurrencyLimit(writeInitial, writeMin, writeMax, tolerance, window.toNanos(), System::nanoTime);
+        this.authLimit = new AdaptiveConcurrencyLimit(authInitial, authMin, authMax, tolerance, window.toNanos(), System::nanoTime);
+        this.readsShed = register(meterRegistry, "read", readLimit);
+        this.writesShed = register(meterRegistry, "write", writeLimit);
+        this.authShed = register(meterRegistry, "auth", authLimit);
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String kind, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("movies.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("movies.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests being processed")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        return Counter.builder("movies.concurrency.shed")
+                .description("Requests refused with 503 because the concurrency limit was reached")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/", request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        String method = request.getMethod();
+        boolean auth = request.getRequestURI().startsWith(AUTH_PATH, request.getContextPath().length());
+        boolean read = method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS");
+        AdaptiveConcurrencyLimit limit = auth ? authLimit : read ? readLimit : writeLimit;
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            (auth ? authShed : read ? readsShed : writesShed).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(OVERLOADED_BODY.length);
+            response.getOutputStream().write(OVERLOADED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            chain.doFilter(request, response);
+            sampled = !request.isAsyncStarted();
+        } finally {
+            // Failed requests and streams that went async say nothing about the backend's latency
+            if (sampled) {
+                limit.release(System.nanoTime() - start, inFlight);
+            } else {
+                limit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.movies.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retry with exponential backoff and full jitter for {@link RetryOnConflict} methods.
+ * Ordered ahead of the transaction interceptor, so every attempt gets its own transaction.
+ * Exhausted retries rethrow the conflict, which GlobalExceptionHandler answers with 409.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class ConflictRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ConflictRetryAspect(MeterRegistry meterRegistry,
+                               @Value("${movies.concurrency.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${movies.concurrency.retry.base-backoff-ms:5}") long baseBackoffMs,
+                               @Value("${movies.concurrency.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Around("@annotation(com.movies.concurrency.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Nested call inside a caller's transaction: only the outermost method can retry the whole unit of work
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable ex) {
+                if (!isConflict(ex)) {
+                    throw ex;
+                }
+                counter("movies.concurrency.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("movies.concurrency.retries.exhausted", operation).increment();
+                    logger.warn("{}: giving up after {} conflicting attempts: {}", operation, attempt, ex.getMessage());
+                    throw ex instanceof ConcurrencyFailureException ? ex
+                            : new ConcurrencyFailureException("Database busy, " + operation + " could not complete", ex);
+                }
+                counter("movies.concurrency.retries", operation).increment();
+                // With open-in-view the request's persistence context outlives the transaction; drop its stale state
+                entityManager.clear();
+                Thread.sleep(backoff(attempt));
+            }
+        }
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^attempt)], which spreads out the contenders
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    // Optimistic lock failures and lock timeouts arrive as ConcurrencyFailureException; a busy SQLite
+    // database may also surface from JdbcTemplate as an untranslated SQLiteException
+    static boolean isConflict(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException) {
+                return true;
+            }
+            if (t instanceof SQLiteException sqliteException) {
+                SQLiteErrorCode code = sqliteException.getResultCode();
+                if (code.code % 256 == SQLiteErrorCode.SQLITE_BUSY.code || code.code % 256 == SQLiteErrorCode.SQLITE_LOCKED.code) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
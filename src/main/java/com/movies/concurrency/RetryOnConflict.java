@@ -0,0 +1,20 @@
+package com.movies.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional service method when it loses a race: an optimistic lock (@Version) conflict or a
+ * busy SQLite database. Each attempt runs in a fresh transaction; see {@link ConflictRetryAspect}.
+ * Only the outermost transactional entry point can retry: a conflict inside a caller's transaction has already
+ * marked it rollback-only, so put this on the method that opens the transaction, not on methods it calls.
+ * Write transactions start with BEGIN IMMEDIATE, so writers in this process take the lock before reading a version
+ * and do not race each other. Version conflicts therefore mostly come from clients sending a stale If-Match, and busy
+ * errors from other connections to the database file (another process, or a lock wait past the busy timeout).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
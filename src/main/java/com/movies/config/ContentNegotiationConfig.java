@@ -0,0 +1,72 @@
+package com.movies.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.movies.serialization.CatalogJsonPageHttpMessageConverter;
+import com.movies.serialization.CatalogProtobufHttpMessageConverter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response formats picked by the Accept header: JSON (the default, also for wildcard Accept headers), CBOR
+ * (application/cbor), Smile (application/x-jackson-smile) and, for the movie, actor and genre resources, Protobuf
+ * (application/x-protobuf). The CBOR and Smile converters take the place of Spring's default ones, which come after
+ * JSON, and are built from the application's Jackson settings; the Protobuf converter is appended last. The movie,
+ * actor and genre list pages get their JSON from a dedicated writer placed just before the Jackson converter.
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public ContentNegotiationConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                converters.add(i, new CatalogJsonPageHttpMessageConverter(objectMapper));
+                break;
+            }
+        }
+        converters.add(new CatalogProtobufHttpMessageConverter());
+    }
+
+    // The same URL now has several representations; caches (and ETag revalidation) must key on Accept
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
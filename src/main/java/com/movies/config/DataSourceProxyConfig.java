@@ -0,0 +1,35 @@
+package com.movies.config;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+    // Wraps the pooled DataSource so every JDBC statement passes through the QueryExecutionListener beans,
+    // and every JDBC method call (e.g. Connection.commit) through the MethodExecutionListener beans
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners,
+                                                                 ObjectProvider<MethodExecutionListener> methodListeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource);
+                    listeners.orderedStream().forEach(builder::listener);
+                    methodListeners.orderedStream().forEach(builder::methodListener);
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.movies.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.sqlite.SQLiteConfig.TransactionMode;
+import org.sqlite.SQLiteConnection;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+@Configuration
+public class SQLiteTransactionConfig {
+
+    // Installs SQLiteJpaDialect before the entity manager factory (and with it the JpaTransactionManager) picks its dialect
+    @Bean
+    public static BeanPostProcessor sqliteJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new SQLiteJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Starts read-write transactions with BEGIN IMMEDIATE. A deferred SQLite transaction that reads first and writes
+     * later fails with SQLITE_BUSY at once when another writer holds the lock (the busy timeout is not applied to the
+     * upgrade), so concurrent writers would abort instead of queueing. Read-only transactions stay deferred.
+     */
+    static class SQLiteJpaDialect extends HibernateJpaDialect {
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+            TransactionMode mode = definition.isReadOnly() ? TransactionMode.DEFERRED : TransactionMode.IMMEDIATE;
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                if (connection.isWrapperFor(SQLiteConnection.class)) {
+                    connection.unwrap(SQLiteConnection.class).getConnectionConfig().setTransactionMode(mode);
+                }
+            });
+            return super.beginTransaction(entityManager, definition);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.movies.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background maintenance (@Scheduled), e.g. change log compaction
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,7 +2,9 @@ package com.movies.config;
 
 import com.movies.security.JwtAuthenticationEntryPoint;
 import com.movies.security.JwtRequestFilter;
+import com.movies.security.RateLimitFilter;
 import com.movies.security.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,14 +28,17 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(CustomUserDetailsService userDetailsService,
                           JwtAuthenticationEntryPoint authenticationEntryPoint,
-                          JwtRequestFilter jwtRequestFilter) {
+                          JwtRequestFilter jwtRequestFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.authenticationEntryPoint = authenticationEntryPoint;
         this.jwtRequestFilter = jwtRequestFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     // Password encoder bean
@@ -70,12 +75,19 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html").permitAll()
+                                "/swagger-ui.html",
+                                "/actuator/health",
+                                "/actuator/prometheus").permitAll()
+                        // Error dispatches (e.g. 406 for an Accept header no converter serves) keep their status instead of 401
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
 
         // Add JWT token filter before UsernamePasswordAuthenticationFilter
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rate limits per user once the token has been resolved (per address for anonymous requests)
+        http.addFilterAfter(rateLimitFilter, JwtRequestFilter.class);
 
         return http.build();
     }
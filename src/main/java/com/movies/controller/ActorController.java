@@ -1,9 +1,13 @@
 package com.movies.controller;
 
 import com.movies.DTOs.ActorDTO;
+import com.movies.DTOs.MultiGetResponse;
 import com.movies.entities.Actor;
 import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.monitoring.QueryBudget;
 import com.movies.services.ActorService;
+import com.movies.services.ProjectionService;
+import com.movies.utils.EntityTags;
 import com.movies.utils.PaginationUtils;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.persistence.EntityNotFoundException;
@@ -11,9 +15,11 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,14 +35,17 @@ import java.util.Optional;
 public class ActorController {
 
     private final ActorService actorService;
+    private final ProjectionService projectionService;
 
     @Autowired
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, ProjectionService projectionService) {
         this.actorService = actorService;
+        this.projectionService = projectionService;
     }
 
     @GetMapping
     @Operation(summary = "Get a list of actors", description = "Retrieve a paginated list of actors, optionally filtering by name.")
+    @QueryBudget(4)
     public ResponseEntity<Page<Actor>> getActors(
             @Parameter(description = "Filter actors by name") @RequestParam(required = false) String name,
             @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
@@ -59,12 +68,61 @@ public class ActorController {
         return ResponseEntity.ok(actors); // 200 OK with paginated actors
     }
 
+    @GetMapping(params = {"fields", "!ids"})
+    @Operation(summary = "Get a list of actors, selected fields only", description = "Retrieve only the requested fields of a paginated list of actors, optionally filtering by name.")
+    @QueryBudget(4)
+    public ResponseEntity<Page<Map<String, Object>>> getActorFields(
+            @Parameter(description = "Filter actors by name") @RequestParam(required = false) String name,
+            @Parameter(description = "Comma-separated fields: id, name") @RequestParam String fields,
+            @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        Page<Map<String, Object>> actors = projectionService.getActors(name, fields, pageable);
+
+        if (actors.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(actors);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get several actors by ID", description = "Retrieve up to 100 actors in one request, in the order their IDs were given. IDs that do not exist are listed in missingIds.")
+    @QueryBudget(3)
+    public ResponseEntity<MultiGetResponse<Actor>> getActorsByIds(
+            @Parameter(description = "Comma-separated actor IDs, e.g. 1,2,3") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(actorService.getActorsByIds(ids));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get an actor by ID", description = "Retrieve an actor by their ID.")
+    @QueryBudget(3)
     public ResponseEntity<Actor> getActorById(
-            @Parameter(description = "ID of the actor to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the actor to retrieve") @PathVariable Long id,
+            WebRequest request) {
+        // Answer If-None-Match from the version column alone, without loading the actor
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(EntityTags.negotiated(actorService.getActorETag(id), request))) {
+            return null;  // 304 Not Modified
+        }
         Actor actor = actorService.getActorById(id);
-        return ResponseEntity.ok(actor);
+        String eTag = EntityTags.negotiated(EntityTags.forVersion(actor.getVersion()), request);
+        return ResponseEntity.ok().eTag(eTag).body(actor);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Get selected fields of an actor", description = "Retrieve only the requested fields of an actor.")
+    @QueryBudget(4)
+    public ResponseEntity<Map<String, Object>> getActorFieldsById(
+            @Parameter(description = "ID of the actor to retrieve") @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields: id, name") @RequestParam String fields,
+            WebRequest request) {
+        String eTag = EntityTags.negotiated(actorService.getActorETag(id), request);
+        if (request.checkNotModified(eTag)) {
+            return null;  // 304 Not Modified
+        }
+        return ResponseEntity.ok().eTag(eTag).body(projectionService.getActor(id, fields));
     }
 
     @PostMapping
@@ -80,8 +138,10 @@ public class ActorController {
     @Operation(summary = "Delete an actor", description = "Delete an actor by ID, with an option to force delete.")
     public ResponseEntity<String> deleteActor(
             @Parameter(description = "ID of the actor to delete") @PathVariable Long id,
-            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete) {
-        String result = actorService.deleteActor(id, forceDelete);
+            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String result = actorService.deleteActor(id, forceDelete, ifMatch);
         if (result.startsWith("Unable to delete")) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(result);  // Return conflict message if unable to delete
         }
@@ -93,8 +153,12 @@ public class ActorController {
     public ResponseEntity<Actor> updateActor(
             @Parameter(description = "ID of the actor to update") @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Updated actor data")
-            @Valid @RequestBody ActorDTO actorDTO) {
-        Actor updatedActor = actorService.partialUpdateActor(id, actorDTO);
-        return ResponseEntity.ok(updatedActor);
+            @Valid @RequestBody ActorDTO actorDTO,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Actor updatedActor = actorService.partialUpdateActor(id, actorDTO, ifMatch);
+        String eTag = EntityTags.negotiated(EntityTags.forVersion(updatedActor.getVersion()), request);
+        return ResponseEntity.ok().eTag(eTag).body(updatedActor);
     }
 }
@@ -0,0 +1,57 @@
+package com.movies.controller;
+
+import com.movies.monitoring.SlowQuery;
+import com.movies.monitoring.SlowQueryLog;
+import com.movies.services.ChangeFeedService;
+import com.movies.services.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminController {
+
+    private final SlowQueryLog slowQueryLog;
+    private final StatsService statsService;
+    private final ChangeFeedService changeFeedService;
+
+    @Autowired
+    public AdminController(SlowQueryLog slowQueryLog, StatsService statsService, ChangeFeedService changeFeedService) {
+        this.slowQueryLog = slowQueryLog;
+        this.statsService = statsService;
+        this.changeFeedService = changeFeedService;
+    }
+
+    @GetMapping("/slow-queries")
+    @Operation(summary = "Get the slowest SQL statements", description = "Retrieve the slowest statements recorded since startup, slowest first. Requires ROLE_ADMIN.")
+    public ResponseEntity<List<SlowQuery>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryLog.snapshot());
+    }
+
+    @DeleteMapping("/slow-queries")
+    @Operation(summary = "Clear the slow query log", description = "Remove all recorded slow statements. Requires ROLE_ADMIN.")
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/stats/rebuild")
+    @Operation(summary = "Rebuild the catalog statistics", description = "Recompute the /api/stats summary tables from the catalog, e.g. after the database was edited directly. Requires ROLE_ADMIN.")
+    public ResponseEntity<Void> rebuildStats() {
+        statsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/changes/compact")
+    @Operation(summary = "Compact the change log", description = "Run the /api/changes compaction now instead of waiting for the next scheduled run. Requires ROLE_ADMIN.")
+    public ResponseEntity<Void> compactChanges() {
+        changeFeedService.compact();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.movies.controller;
+
+import com.movies.DTOs.SuggestionDTO;
+import com.movies.monitoring.QueryBudget;
+import com.movies.services.AutocompleteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@SecurityRequirement(name = "bearerAuth")
+public class AutocompleteController {
+
+    private final AutocompleteService autocompleteService;
+
+    @Autowired
+    public AutocompleteController(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Autocomplete movie titles and actor names", description = "Movies and actors with a word in their name "
+            + "starting with the query, ignoring case and accents, most popular first (cast size for movies, movie count for actors).")
+    @QueryBudget(2)
+    public ResponseEntity<List<SuggestionDTO>> autocomplete(
+            @Parameter(description = "Prefix typed so far") @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (1-50)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteService.suggest(q, limit));
+    }
+}
@@ -0,0 +1,53 @@
+package com.movies.controller;
+
+import com.movies.DTOs.ChangeFeedPage;
+import com.movies.monitoring.QueryBudget;
+import com.movies.services.ChangeFeedService;
+import com.movies.services.ChangeStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+@SecurityRequirement(name = "bearerAuth")
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+    private final ChangeStreamService changeStreamService;
+
+    @Autowired
+    public ChangeController(ChangeFeedService changeFeedService, ChangeStreamService changeStreamService) {
+        this.changeFeedService = changeFeedService;
+        this.changeStreamService = changeStreamService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get catalog changes since a sequence number", description = "Creates, updates, deletes and link changes "
+            + "of movies, actors and genres after 'since', oldest first. Start with since=0 and pass the returned nextSince on the "
+            + "next call. Old entries are compacted to the latest one per entity; if resyncRequired is true, reload the catalog "
+            + "and continue from nextSince.")
+    @QueryBudget(3)
+    public ResponseEntity<ChangeFeedPage> getChanges(
+            @Parameter(description = "Sequence number of the last change already processed") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes returned (1-1000)") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream catalog changes", description = "Server-sent events: a 'change' event (id = sequence number, data as in "
+            + "GET /api/changes) for every change as it commits. A client that falls too far behind gets a 'resync' event with the "
+            + "sequence number to fetch GET /api/changes from. Reconnecting with Last-Event-ID (or 'since') replays what was missed.")
+    @QueryBudget(2)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence number of the last change received; set by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "Same as Last-Event-ID, for clients that cannot set headers") @RequestParam(required = false) Long since) {
+        return changeStreamService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
@@ -0,0 +1,49 @@
+package com.movies.controller;
+
+import com.movies.DTOs.ActorConnectionDTO;
+import com.movies.DTOs.CoStarDTO;
+import com.movies.monitoring.QueryBudget;
+import com.movies.services.CoStarService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/actors")
+@SecurityRequirement(name = "bearerAuth")
+public class CoStarController {
+
+    private final CoStarService coStarService;
+
+    @Autowired
+    public CoStarController(CoStarService coStarService) {
+        this.coStarService = coStarService;
+    }
+
+    @GetMapping("/{id}/co-stars")
+    @Operation(summary = "Get an actor's co-stars", description = "Actors within the given number of hops through shared movies "
+            + "(1 = appeared in a movie together), nearest first, then by ID.")
+    @QueryBudget(4)
+    public ResponseEntity<List<CoStarDTO>> getCoStars(
+            @Parameter(description = "ID of the actor") @PathVariable Long id,
+            @Parameter(description = "Maximum number of hops (1-3)") @RequestParam(defaultValue = "1") int hops,
+            @Parameter(description = "Maximum number of actors returned (1-1000)") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(coStarService.getCoStars(id, hops, limit));
+    }
+
+    @GetMapping("/{id}/connection/{otherId}")
+    @Operation(summary = "Get the shortest connection between two actors", description = "The shortest chain of shared movies "
+            + "from one actor to the other, as alternating actor and movie steps. 'connected' is false if there is none within maxHops.")
+    @QueryBudget(5)
+    public ResponseEntity<ActorConnectionDTO> getConnection(
+            @Parameter(description = "ID of the first actor") @PathVariable Long id,
+            @Parameter(description = "ID of the second actor") @PathVariable Long otherId,
+            @Parameter(description = "Maximum number of movies in the chain (1-10)") @RequestParam(defaultValue = "6") int maxHops) {
+        return ResponseEntity.ok(coStarService.getConnection(id, otherId, maxHops));
+    }
+}
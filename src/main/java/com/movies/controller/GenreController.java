@@ -1,8 +1,12 @@
 package com.movies.controller;
 
 import com.movies.DTOs.GenreDTO;
+import com.movies.DTOs.MultiGetResponse;
 import com.movies.entities.Genre;
+import com.movies.monitoring.QueryBudget;
 import com.movies.services.GenreService;
+import com.movies.services.ProjectionService;
+import com.movies.utils.EntityTags;
 import com.movies.utils.PaginationUtils;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.persistence.EntityNotFoundException;
@@ -10,9 +14,11 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,14 +34,17 @@ import java.util.Optional;
 public class GenreController {
 
     private final GenreService genreService;
+    private final ProjectionService projectionService;
 
     @Autowired
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, ProjectionService projectionService) {
         this.genreService = genreService;
+        this.projectionService = projectionService;
     }
 
     @GetMapping
     @Operation(summary = "Get all genres", description = "Retrieve a paginated list of all genres.")
+    @QueryBudget(4)
     public ResponseEntity<Page<Genre>> getAllGenres(
             @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
@@ -49,16 +58,65 @@ public class GenreController {
         return ResponseEntity.ok(genres);  // Returns 200 OK with the paginated list of genres
     }
 
+    @GetMapping(params = {"fields", "!ids"})
+    @Operation(summary = "Get all genres, selected fields only", description = "Retrieve only the requested fields of a paginated list of all genres.")
+    @QueryBudget(4)
+    public ResponseEntity<Page<Map<String, Object>>> getAllGenreFields(
+            @Parameter(description = "Comma-separated fields: id, name") @RequestParam String fields,
+            @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        Page<Map<String, Object>> genres = projectionService.getGenres(null, fields, pageable);
+
+        if (genres.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(genres);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get several genres by ID", description = "Retrieve up to 100 genres in one request, in the order their IDs were given. IDs that do not exist are listed in missingIds.")
+    @QueryBudget(3)
+    public ResponseEntity<MultiGetResponse<Genre>> getGenresByIds(
+            @Parameter(description = "Comma-separated genre IDs, e.g. 1,2,3") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(genreService.getGenresByIds(ids));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a genre by ID", description = "Retrieve a genre by its ID.")
+    @QueryBudget(3)
     public ResponseEntity<Genre> getGenreById(
-            @Parameter(description = "ID of the genre to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the genre to retrieve") @PathVariable Long id,
+            WebRequest request) {
+        // Answer If-None-Match from the version column alone, without loading the genre
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(EntityTags.negotiated(genreService.getGenreETag(id), request))) {
+            return null;  // 304 Not Modified
+        }
         Genre genre = genreService.getGenreById(id);
-        return ResponseEntity.ok(genre);
+        String eTag = EntityTags.negotiated(EntityTags.forVersion(genre.getVersion()), request);
+        return ResponseEntity.ok().eTag(eTag).body(genre);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Get selected fields of a genre", description = "Retrieve only the requested fields of a genre.")
+    @QueryBudget(4)
+    public ResponseEntity<Map<String, Object>> getGenreFieldsById(
+            @Parameter(description = "ID of the genre to retrieve") @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields: id, name") @RequestParam String fields,
+            WebRequest request) {
+        String eTag = EntityTags.negotiated(genreService.getGenreETag(id), request);
+        if (request.checkNotModified(eTag)) {
+            return null;  // 304 Not Modified
+        }
+        return ResponseEntity.ok().eTag(eTag).body(projectionService.getGenre(id, fields));
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search genres by name", description = "Retrieve genres that match the given name.")
+    @QueryBudget(4)
     public ResponseEntity<Page<Genre>> getGenresByName(
             @Parameter(description = "Name to search for") @RequestParam String name,
             @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
@@ -74,6 +132,25 @@ public class GenreController {
         return ResponseEntity.ok(genres);  // 200 OK with paginated genres if found
     }
 
+    @GetMapping(value = "/search", params = "fields")
+    @Operation(summary = "Search genres by name, selected fields only", description = "Retrieve only the requested fields of genres that match the given name.")
+    @QueryBudget(4)
+    public ResponseEntity<Page<Map<String, Object>>> getGenreFieldsByName(
+            @Parameter(description = "Name to search for") @RequestParam String name,
+            @Parameter(description = "Comma-separated fields: id, name") @RequestParam String fields,
+            @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        Page<Map<String, Object>> genres = projectionService.getGenres(name, fields, pageable);
+
+        if (genres.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(genres);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new genre", description = "Create a new genre with the provided details.")
     public ResponseEntity<Genre> createGenre(
@@ -86,17 +163,23 @@ public class GenreController {
     @Operation(summary = "Update a genre", description = "Update an existing genre's details.")
     public ResponseEntity<Genre> updateGenre(
             @Parameter(description = "ID of the genre to update") @PathVariable Long id,
-            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Updated genre data") @Valid @RequestBody GenreDTO genreDTO) {
-        Genre updatedGenre = genreService.partialUpdateGenre(id, genreDTO);
-        return ResponseEntity.ok(updatedGenre);
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Updated genre data") @Valid @RequestBody GenreDTO genreDTO,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Genre updatedGenre = genreService.partialUpdateGenre(id, genreDTO, ifMatch);
+        String eTag = EntityTags.negotiated(EntityTags.forVersion(updatedGenre.getVersion()), request);
+        return ResponseEntity.ok().eTag(eTag).body(updatedGenre);
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a genre", description = "Delete a genre by ID, with an option to force delete.")
     public ResponseEntity<String> deleteGenre(
             @Parameter(description = "ID of the genre to delete") @PathVariable Long id,
-            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete) {
-        String message = genreService.deleteGenre(id, forceDelete);
+            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String message = genreService.deleteGenre(id, forceDelete, ifMatch);
         if (message.startsWith("Unable to delete")) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
         }
@@ -1,11 +1,17 @@
 package com.movies.controller;
 
+import com.movies.DTOs.AssociationUpdateResult;
 import com.movies.DTOs.MovieDTO;
 import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.DTOs.MultiGetResponse;
 import com.movies.entities.Actor;
 import com.movies.entities.Genre;
 import com.movies.entities.Movie;
+import com.movies.monitoring.QueryBudget;
+import com.movies.repositories.MovieAssociationRepository.Association;
 import com.movies.services.MovieService;
+import com.movies.services.ProjectionService;
+import com.movies.utils.EntityTags;
 import com.movies.utils.PaginationUtils;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,13 +22,17 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RestController
@@ -31,10 +41,12 @@ import java.util.Set;
 public class MovieController {
 
     private final MovieService movieService;
+    private final ProjectionService projectionService;
 
     @Autowired
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, ProjectionService projectionService) {
         this.movieService = movieService;
+        this.projectionService = projectionService;
     }
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved movies",
@@ -42,43 +54,66 @@ public class MovieController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping
-    @Operation(summary = "Get a list of movies", description = "Retrieve movies, optionally filtering by genre, year, or actor.")
+    @Operation(summary = "Get a list of movies", description = "Retrieve movies, optionally filtering by any combination of genres, actors, year and duration.")
+    @QueryBudget(6)
     public ResponseEntity<Page<MovieMinimalDTO>> getMovies(
-            @Parameter(description = "Filter by genre ID") @RequestParam(required = false) Long genre,
+            @Parameter(description = "Filter by genre ID; repeat or comma-separate to require several genres") @RequestParam(required = false) List<Long> genre,
             @Parameter(description = "Filter by release year") @RequestParam(required = false) Integer year,
-            @Parameter(description = "Filter by actor ID") @RequestParam(required = false) Long actor,
+            @Parameter(description = "Filter by actor ID; repeat or comma-separate to require several actors") @RequestParam(required = false) List<Long> actor,
+            @Parameter(description = "Released in or after this year") @RequestParam(required = false) Integer yearFrom,
+            @Parameter(description = "Released in or before this year") @RequestParam(required = false) Integer yearTo,
+            @Parameter(description = "Minimum duration in minutes") @RequestParam(required = false) Integer minDuration,
+            @Parameter(description = "Maximum duration in minutes") @RequestParam(required = false) Integer maxDuration,
             @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PaginationUtils.createPageRequest(page, size);
-        Page<Movie> movies;
-
-        if (actor != null) {
-            movies = movieService.getMoviesByActorId(actor, pageable);
-        } else if (genre != null) {
-            movies = movieService.getMoviesByGenre(genre, pageable);
-        } else if (year != null) {
-            movies = movieService.getMoviesByYear(year, pageable);
-        } else {
-            movies = movieService.getAllMovies(pageable);
-        }
+        Page<MovieMinimalDTO> movies = movieService.getMovies(actor, genre, year, yearFrom, yearTo,
+                minDuration, maxDuration, pageable);
 
         if (movies.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        // Map Movie entities to MovieMinimalDTOs
-        Page<MovieMinimalDTO> minimalMoviesPage = movies.map(MovieMinimalDTO::new);
+        return ResponseEntity.ok(movies);
+    }
 
-        return ResponseEntity.ok(minimalMoviesPage);
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get several movies by ID", description = "Retrieve up to 100 movies in one request, in the order their IDs were given. IDs that do not exist are listed in missingIds.")
+    @QueryBudget(4)
+    public ResponseEntity<MultiGetResponse<Movie>> getMoviesByIds(
+            @Parameter(description = "Comma-separated movie IDs, e.g. 1,2,3") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(ids));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a movie by ID", description = "Retrieve a movie by its ID.")
+    @QueryBudget(5)
     public ResponseEntity<Movie> getMovieById(
-            @Parameter(description = "ID of the movie to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the movie to retrieve") @PathVariable Long id,
+            WebRequest request) {
+        // Answer If-None-Match from the version columns alone, without loading the movie
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(EntityTags.negotiated(movieService.getMovieETag(id), request))) {
+            return null;  // 304 Not Modified
+        }
         Movie movie = movieService.getMovieById(id);
-        return ResponseEntity.ok(movie);
+        String eTag = EntityTags.negotiated(EntityTags.forMovie(movie), request);
+        return ResponseEntity.ok().eTag(eTag).body(movie);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Get selected fields of a movie", description = "Retrieve only the requested fields of a movie. Actors and genres are only loaded when listed.")
+    @QueryBudget(6)
+    public ResponseEntity<Map<String, Object>> getMovieFieldsById(
+            @Parameter(description = "ID of the movie to retrieve") @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields: id, title, releaseYear, duration, actors, genres") @RequestParam String fields,
+            WebRequest request) {
+        String eTag = EntityTags.negotiated(movieService.getMovieETag(id), request);
+        if (request.checkNotModified(eTag)) {
+            return null;  // 304 Not Modified
+        }
+        return ResponseEntity.ok().eTag(eTag).body(projectionService.getMovie(id, fields));
     }
 
     @GetMapping("/search")
@@ -98,6 +133,25 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
 
+    @GetMapping(value = "/search", params = "fields")
+    @Operation(summary = "Search movies by title, selected fields only", description = "Retrieve only the requested fields of movies that match the given title.")
+    @QueryBudget(7)
+    public ResponseEntity<Page<Map<String, Object>>> getMovieFieldsByTitle(
+            @Parameter(description = "Title to search for") @RequestParam String title,
+            @Parameter(description = "Comma-separated fields: id, title, releaseYear, duration, actors, genres") @RequestParam String fields,
+            @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        Page<Map<String, Object>> movies = projectionService.getMoviesByTitle(title, fields, pageable);
+
+        if (movies.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(movies);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new movie", description = "Create a new movie with the provided details.")
     public ResponseEntity<Movie> createMovie(
@@ -111,8 +165,10 @@ public class MovieController {
     @Operation(summary = "Delete a movie", description = "Delete a movie by ID, with an option to force delete.")
     public ResponseEntity<String> deleteMovie(
             @Parameter(description = "ID of the movie to delete") @PathVariable Long id,
-            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete) {
-        String result = movieService.deleteMovie(id, forceDelete);
+            @Parameter(description = "Set to true to force delete") @RequestParam(defaultValue = "false") boolean forceDelete,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String result = movieService.deleteMovie(id, forceDelete, ifMatch);
         if (result.startsWith("Unable to delete")) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(result); // Return 409 Conflict with a message
         }
@@ -124,13 +180,18 @@ public class MovieController {
     public ResponseEntity<Movie> updateMovie(
             @Parameter(description = "ID of the movie to update") @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Updated movie data")
-            @RequestBody MovieDTO dto) {
-        Movie updatedMovie = movieService.updateMovieWithAssociations(id, dto);
-        return ResponseEntity.ok(updatedMovie);
+            @RequestBody MovieDTO dto,
+            @Parameter(description = "ETag the client last read; 412 Precondition Failed if the entity changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            WebRequest request) {
+        Movie updatedMovie = movieService.updateMovieWithAssociations(id, dto, ifMatch);
+        String eTag = EntityTags.negotiated(EntityTags.forMovie(updatedMovie), request);
+        return ResponseEntity.ok().eTag(eTag).body(updatedMovie);
     }
 
     @GetMapping("/{movieId}/actors")
     @Operation(summary = "Get actors in a movie", description = "Retrieve all actors associated with a given movie.")
+    @QueryBudget(4)
     public ResponseEntity<Set<Actor>> getActorsInMovie(
             @Parameter(description = "ID of the movie") @PathVariable Long movieId) {
         Set<Actor> actors = movieService.getActorsInMovie(movieId);
@@ -153,6 +214,7 @@ public class MovieController {
 
     @GetMapping("/{movieId}/genres")
     @Operation(summary = "Get genres of a movie", description = "Retrieve all genres associated with a given movie.")
+    @QueryBudget(4)
     public ResponseEntity<Set<Genre>> getGenresInMovie(
             @Parameter(description = "ID of the movie") @PathVariable Long movieId) {
         Set<Genre> genres = movieService.getGenresInMovie(movieId);
@@ -173,6 +235,60 @@ public class MovieController {
         return ResponseEntity.status(HttpStatus.CREATED).body(movie); // 201 Created for successful association
     }
 
+    @PutMapping("/{movieId}/actors")
+    @Operation(summary = "Replace the actors of a movie", description = "Set the movie's actors to exactly the given IDs in one transaction.")
+    public ResponseEntity<AssociationUpdateResult> replaceActors(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of actor IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> actorIds) {
+        return ResponseEntity.ok(movieService.replaceAssociations(movieId, Association.ACTORS, actorIds));
+    }
+
+    @PostMapping("/{movieId}/actors")
+    @Operation(summary = "Add actors to a movie", description = "Associate all given actors with the movie; existing associations are kept.")
+    public ResponseEntity<AssociationUpdateResult> addActors(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of actor IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> actorIds) {
+        return ResponseEntity.ok(movieService.addAssociations(movieId, Association.ACTORS, actorIds));
+    }
+
+    @DeleteMapping("/{movieId}/actors")
+    @Operation(summary = "Remove actors from a movie", description = "Disassociate all given actors from the movie; IDs that are not associated are ignored.")
+    public ResponseEntity<AssociationUpdateResult> removeActors(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of actor IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> actorIds) {
+        return ResponseEntity.ok(movieService.removeAssociations(movieId, Association.ACTORS, actorIds));
+    }
+
+    @PutMapping("/{movieId}/genres")
+    @Operation(summary = "Replace the genres of a movie", description = "Set the movie's genres to exactly the given IDs in one transaction.")
+    public ResponseEntity<AssociationUpdateResult> replaceGenres(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of genre IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> genreIds) {
+        return ResponseEntity.ok(movieService.replaceAssociations(movieId, Association.GENRES, genreIds));
+    }
+
+    @PostMapping("/{movieId}/genres")
+    @Operation(summary = "Add genres to a movie", description = "Associate all given genres with the movie; existing associations are kept.")
+    public ResponseEntity<AssociationUpdateResult> addGenres(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of genre IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> genreIds) {
+        return ResponseEntity.ok(movieService.addAssociations(movieId, Association.GENRES, genreIds));
+    }
+
+    @DeleteMapping("/{movieId}/genres")
+    @Operation(summary = "Remove genres from a movie", description = "Disassociate all given genres from the movie; IDs that are not associated are ignored.")
+    public ResponseEntity<AssociationUpdateResult> removeGenres(
+            @Parameter(description = "ID of the movie") @PathVariable Long movieId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of genre IDs, e.g. [1, 2, 3]")
+            @RequestBody List<Long> genreIds) {
+        return ResponseEntity.ok(movieService.removeAssociations(movieId, Association.GENRES, genreIds));
+    }
+
     @DeleteMapping("/{movieId}/actors/{actorId}")
     @Operation(summary = "Remove an actor from a movie", description = "Disassociate an actor from a movie.")
     public ResponseEntity<String> removeActorFromMovie(
@@ -0,0 +1,37 @@
+package com.movies.controller;
+
+import com.movies.DTOs.SimilarMovieDTO;
+import com.movies.monitoring.QueryBudget;
+import com.movies.services.SimilarMovieService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/movies")
+@SecurityRequirement(name = "bearerAuth")
+public class SimilarMovieController {
+
+    private final SimilarMovieService similarMovieService;
+
+    @Autowired
+    public SimilarMovieController(SimilarMovieService similarMovieService) {
+        this.similarMovieService = similarMovieService;
+    }
+
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "Get similar movies", description = "Movies sharing cast and genres with the given one, most similar first "
+            + "(Jaccard similarity of the combined actor and genre sets). Candidates come from a MinHash index, so a movie "
+            + "with little overlap may be missed.")
+    @QueryBudget(3)
+    public ResponseEntity<List<SimilarMovieDTO>> getSimilarMovies(
+            @Parameter(description = "ID of the movie") @PathVariable Long id,
+            @Parameter(description = "Maximum number of movies returned (1-100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(similarMovieService.getSimilarMovies(id, limit));
+    }
+}
@@ -0,0 +1,77 @@
+package com.movies.controller;
+
+import com.movies.DTOs.EntityStats;
+import com.movies.DTOs.YearStats;
+import com.movies.monitoring.QueryBudget;
+import com.movies.services.StatsService;
+import com.movies.utils.PaginationUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@SecurityRequirement(name = "bearerAuth")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @Autowired
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping("/years")
+    @Operation(summary = "Get movie statistics per release year", description = "Movie count and average duration for every year with movies, oldest first.")
+    @QueryBudget(3)
+    public ResponseEntity<List<YearStats>> getYearStats() {
+        return ResponseEntity.ok(statsService.getYearStats());
+    }
+
+    @GetMapping("/years/{year}")
+    @Operation(summary = "Get movie statistics for a release year", description = "Movie count and average duration of the movies released in the year.")
+    @QueryBudget(3)
+    public ResponseEntity<YearStats> getYearStats(
+            @Parameter(description = "Release year") @PathVariable int year) {
+        return ResponseEntity.ok(statsService.getYearStats(year));
+    }
+
+    @GetMapping("/genres")
+    @Operation(summary = "Get movie statistics per genre", description = "Movie count and average duration for every genre with movies, most movies first.")
+    @QueryBudget(3)
+    public ResponseEntity<List<EntityStats>> getGenreStats() {
+        return ResponseEntity.ok(statsService.getGenreStats());
+    }
+
+    @GetMapping("/genres/{id}")
+    @Operation(summary = "Get movie statistics for a genre", description = "Movie count and average duration of the genre's movies.")
+    @QueryBudget(3)
+    public ResponseEntity<EntityStats> getGenreStats(
+            @Parameter(description = "ID of the genre") @PathVariable Long id) {
+        return ResponseEntity.ok(statsService.getGenreStats(id));
+    }
+
+    @GetMapping("/actors")
+    @Operation(summary = "Get movie statistics per actor", description = "Movie count and average duration for actors with movies, in actor ID order. "
+            + "The response is a slice: it tells whether there is a next page, but not the total.")
+    @QueryBudget(3)
+    public ResponseEntity<Slice<EntityStats>> getActorStats(
+            @Parameter(description = "Page number (zero-based index)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of records per page") @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(statsService.getActorStats(PaginationUtils.createPageRequest(page, size)));
+    }
+
+    @GetMapping("/actors/{id}")
+    @Operation(summary = "Get movie statistics for an actor", description = "Movie count and average duration of the actor's movies.")
+    @QueryBudget(3)
+    public ResponseEntity<EntityStats> getActorStats(
+            @Parameter(description = "ID of the actor") @PathVariable Long id) {
+        return ResponseEntity.ok(statsService.getActorStats(id));
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.movies.existence.IdExistenceListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Past;
@@ -14,6 +15,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(IdExistenceListener.class)
 //@JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Actor {
     @Id
@@ -31,6 +33,12 @@ public class Actor {
     @JsonBackReference
     private Set<Movie> movies = new HashSet<>();
 
+    // Bumped by Hibernate on every change of the actor; used for ETags (movie links bump the owning movie)
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private long version;
+
     public Actor() {}
 
     // Getters and Setters
@@ -38,10 +46,19 @@ public class Actor {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
 
+    @JsonIgnore  // the actor's JSON representation has never included it
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
     public Set<Movie> getMovies() {
         return movies;
     }
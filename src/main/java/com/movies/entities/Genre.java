@@ -2,6 +2,7 @@ package com.movies.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.movies.existence.IdExistenceListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 
@@ -9,6 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(IdExistenceListener.class)
 public class Genre {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +23,12 @@ public class Genre {
     @JsonBackReference
     private Set<Movie> movies = new HashSet<>();
 
+    // Bumped by Hibernate on every change of the genre; used for ETags (movie links bump the owning movie)
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private long version;
+
     public Genre() {}
 
     // Getters and Setters
@@ -28,6 +36,10 @@ public class Genre {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -1,8 +1,10 @@
 package com.movies.entities;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.movies.existence.IdExistenceListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +17,8 @@ import java.util.Set;
 
 
 @Entity
+@EntityListeners(IdExistenceListener.class)
+@Table(indexes = @Index(name = "idx_movie_release_year", columnList = "release_year"))
 //@JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Movie {
     @Id
@@ -39,7 +43,8 @@ public class Movie {
     @JoinTable(
             name = "movie_actor",
             joinColumns = @JoinColumn(name = "movie_id"),
-            inverseJoinColumns = @JoinColumn(name = "actor_id")
+            inverseJoinColumns = @JoinColumn(name = "actor_id"),
+            indexes = @Index(name = "idx_movie_actor_actor_id", columnList = "actor_id")  // the primary key only covers lookups by movie
     )
     @JsonManagedReference
     private Set<Actor> actors = new HashSet<>();
@@ -49,11 +54,18 @@ public class Movie {
     @JoinTable(
             name = "movie_genre",
             joinColumns = @JoinColumn(name = "movie_id"),
-            inverseJoinColumns = @JoinColumn(name = "genre_id")
+            inverseJoinColumns = @JoinColumn(name = "genre_id"),
+            indexes = @Index(name = "idx_movie_genre_genre_id", columnList = "genre_id")  // the primary key only covers lookups by movie
     )
     @JsonManagedReference
     private Set<Genre> genres = new HashSet<>();
 
+    // Bumped by Hibernate on every change of the entity or of its associations; used for ETags
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private long version;
+
     public Movie() {}
 
     // Getters and Setters
@@ -61,6 +73,10 @@ public class Movie {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getTitle() {
         return title;
     }
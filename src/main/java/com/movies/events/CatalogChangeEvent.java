@@ -0,0 +1,53 @@
+package com.movies.events;
+
+/**
+ * Published by the services for every change to a movie, actor or genre. In-memory indexes listen for it with
+ * {@code @TransactionalEventListener}, so they only see changes that committed, and re-read the affected rows
+ * rather than trusting the event's order. A movie whose actor or genre links change gets its own MOVIE event
+ * (LINKS_CHANGED unless it was created, updated or deleted itself), whichever side the change was made from.
+ */
+public class CatalogChangeEvent {
+
+    public enum EntityType { MOVIE, ACTOR, GENRE }
+
+    public enum ChangeType { CREATED, UPDATED, DELETED, LINKS_CHANGED }
+
+    private final EntityType entityType;
+    private final long id;
+    private final ChangeType changeType;
+
+    public CatalogChangeEvent(EntityType entityType, long id, ChangeType changeType) {
+        this.entityType = entityType;
+        this.id = id;
+        this.changeType = changeType;
+    }
+
+    public static CatalogChangeEvent movie(long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.MOVIE, id, changeType);
+    }
+
+    public static CatalogChangeEvent actor(long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.ACTOR, id, changeType);
+    }
+
+    public static CatalogChangeEvent genre(long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.GENRE, id, changeType);
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @Override
+    public String toString() {
+        return entityType + " " + id + " " + changeType;
+    }
+}
@@ -0,0 +1,58 @@
+package com.movies.events;
+
+import org.slf4j.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The background thread of an in-memory index that listens for {@link CatalogChangeEvent}s. Every change and every
+ * rebuild runs on it, so the index has a single writer. A change queued again before it ran is only applied once,
+ * after the latest commit, and a change that fails is recovered from by rebuilding the whole index.
+ */
+public final class CatalogIndexWorker {
+
+    private final String indexName;
+    private final Logger logger;
+    private final Runnable rebuild;
+    private final ExecutorService executor;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public CatalogIndexWorker(String indexName, String threadName, Logger logger, Runnable rebuild) {
+        this.indexName = indexName;
+        this.logger = logger;
+        this.rebuild = rebuild;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Builds the index on the worker thread and waits for it
+    public void rebuildNow() throws InterruptedException, ExecutionException {
+        executor.submit(rebuild).get();
+    }
+
+    // Queues the change unless one with the same key is still waiting; the subject only names it in the log
+    public void submit(long key, String subject, Runnable change) {
+        if (pending.add(key)) {
+            executor.execute(() -> {
+                pending.remove(key);
+                try {
+                    change.run();
+                } catch (RuntimeException ex) {
+                    logger.warn("{}: could not apply the change of {}, rebuilding: {}", indexName, subject, ex.getMessage());
+                    rebuild.run();
+                }
+            });
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
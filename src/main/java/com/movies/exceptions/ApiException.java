@@ -0,0 +1,30 @@
+package com.movies.exceptions;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Base of the domain exceptions answered by GlobalExceptionHandler. They report expected outcomes of a request
+ * (unknown id, duplicate, bad parameter), so no stack trace is captured and the JSON error body is built once,
+ * when the exception is created.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final String errorBody;
+
+    protected ApiException(String message) {
+        super(message, null, false, false);
+        this.errorBody = errorBody(message);
+    }
+
+    // {"error": message}, as the handler used to serialize it from a map
+    public String getErrorBody() {
+        return errorBody;
+    }
+
+    static String errorBody(String message) {
+        if (message == null) {
+            return "{\"error\":null}";
+        }
+        return "{\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(message)) + "\"}";
+    }
+}
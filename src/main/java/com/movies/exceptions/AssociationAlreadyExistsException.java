@@ -1,6 +1,6 @@
 package com.movies.exceptions;
 
-public class AssociationAlreadyExistsException extends RuntimeException {
+public class AssociationAlreadyExistsException extends ApiException {
     public AssociationAlreadyExistsException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.movies.exceptions;
 
-public class AssociationNotFoundException extends RuntimeException {
+public class AssociationNotFoundException extends ApiException {
     public AssociationNotFoundException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.movies.exceptions;
 
-public class DuplicateEntityException extends RuntimeException {
+public class DuplicateEntityException extends ApiException {
     public DuplicateEntityException(String message) {
         super(message);
     }
@@ -2,7 +2,9 @@ package com.movies.exceptions;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -22,6 +24,9 @@ import java.util.stream.Collectors;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String CONCURRENT_MODIFICATION_BODY =
+            ApiException.errorBody("The resource was modified concurrently, please retry.");
+
     // Handle @Valid or @Validated annotated methods' validation errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -55,38 +60,44 @@ public class GlobalExceptionHandler {
 //    }
 
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, String>> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    public ResponseEntity<String> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return errorResponse(HttpStatus.NOT_FOUND, ex);
     }
 
     @ExceptionHandler(AssociationAlreadyExistsException.class)
-    public ResponseEntity<Map<String, String>> handleAssociationAlreadyExists(AssociationAlreadyExistsException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT); // 409 Conflict status
+    public ResponseEntity<String> handleAssociationAlreadyExists(AssociationAlreadyExistsException ex) {
+        return errorResponse(HttpStatus.CONFLICT, ex); // 409 Conflict status
     }
 
     @ExceptionHandler(AssociationNotFoundException.class)
-    public ResponseEntity<Map<String, String>> handleAssociationNotFoundException(AssociationNotFoundException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND); // Use 404 or 409 based on your design decision
+    public ResponseEntity<String> handleAssociationNotFoundException(AssociationNotFoundException ex) {
+        return errorResponse(HttpStatus.NOT_FOUND, ex); // Use 404 or 409 based on your design decision
     }
 
     @ExceptionHandler(DuplicateEntityException.class)
-    public ResponseEntity<Map<String, String>> handleDuplicateEntityException(DuplicateEntityException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    public ResponseEntity<String> handleDuplicateEntityException(DuplicateEntityException ex) {
+        return errorResponse(HttpStatus.CONFLICT, ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return errorResponse(HttpStatus.PRECONDITION_FAILED, ex);
+    }
+
+    // Still conflicting after the @RetryOnConflict attempts were used up
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON).body(CONCURRENT_MODIFICATION_BODY);
     }
 
     @ExceptionHandler(InvalidPaginationParameterException.class)
-    public ResponseEntity<Map<String, String>> handleInvalidPaginationParameter(InvalidPaginationParameterException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    public ResponseEntity<String> handleInvalidPaginationParameter(InvalidPaginationParameterException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<String> handleInvalidQueryParameter(InvalidQueryParameterException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, ex);
     }
 
     @ExceptionHandler(DateTimeParseException.class)
@@ -112,5 +123,10 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
     }
 
+    // Domain exceptions carry their JSON body already serialized
+    private static ResponseEntity<String> errorResponse(HttpStatus status, ApiException ex) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(ex.getErrorBody());
+    }
+
 
 }
\ No newline at end of file
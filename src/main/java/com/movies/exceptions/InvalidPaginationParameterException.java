@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InvalidPaginationParameterException extends RuntimeException {
+public class InvalidPaginationParameterException extends ApiException {
     public InvalidPaginationParameterException(String message) {
         super(message);
     }
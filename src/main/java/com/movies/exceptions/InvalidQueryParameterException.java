@@ -0,0 +1,7 @@
+package com.movies.exceptions;
+
+public class InvalidQueryParameterException extends ApiException {
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
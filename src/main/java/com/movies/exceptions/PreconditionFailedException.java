@@ -0,0 +1,8 @@
+package com.movies.exceptions;
+
+// The If-Match tag no longer names the stored version; answered with 412 Precondition Failed
+public class PreconditionFailedException extends ApiException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
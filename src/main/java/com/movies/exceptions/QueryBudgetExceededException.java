@@ -0,0 +1,7 @@
+package com.movies.exceptions;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.movies.exceptions;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends ApiException {
     public ResourceNotFoundException(String message) {
         super(message);
     }
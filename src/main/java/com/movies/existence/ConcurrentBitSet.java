@@ -0,0 +1,70 @@
+package com.movies.existence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Growable bit set with lock-free reads. Writers serialize on the set; the word array is replaced (copied) when
+ * it has to grow, and readers always pick up the current one. Bits at or above maxBits are never stored.
+ */
+final class ConcurrentBitSet {
+
+    private final long maxBits;
+    private volatile AtomicLongArray words = new AtomicLongArray(16);
+
+    ConcurrentBitSet(long maxBits) {
+        this.maxBits = maxBits;
+    }
+
+    boolean inRange(long bit) {
+        return bit >= 0 && bit < maxBits;
+    }
+
+    boolean get(long bit) {
+        if (!inRange(bit)) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int index = (int) (bit >>> 6);
+        return index < current.length() && (current.get(index) & (1L << bit)) != 0;
+    }
+
+    void set(long bit) {
+        if (!inRange(bit) || get(bit)) {
+            return;  // the common case once warm: no lock
+        }
+        synchronized (this) {
+            int index = (int) (bit >>> 6);
+            AtomicLongArray current = words;
+            if (index >= current.length()) {
+                AtomicLongArray grown = new AtomicLongArray(Math.max(index + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                current = grown;
+            }
+            long mask = 1L << bit;
+            current.getAndUpdate(index, word -> word | mask);
+            words = current;
+        }
+    }
+
+    synchronized void clear(long bit) {
+        if (!inRange(bit)) {
+            return;
+        }
+        int index = (int) (bit >>> 6);
+        if (index < words.length()) {
+            long mask = 1L << bit;
+            words.getAndUpdate(index, word -> word & ~mask);
+        }
+    }
+
+    long cardinality() {
+        AtomicLongArray current = words;
+        long count = 0;
+        for (int i = 0; i < current.length(); i++) {
+            count += Long.bitCount(current.get(i));
+        }
+        return count;
+    }
+}
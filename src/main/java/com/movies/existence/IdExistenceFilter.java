@@ -0,0 +1,172 @@
+package com.movies.existence;
+
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import com.movies.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of the movie, actor and genre ids that exist, so lookups of unknown ids are answered without a query.
+ * Loaded once at startup and kept current by {@link IdExistenceListener}. It may only err towards "might exist":
+ * ids are added as soon as they are persisted or loaded and removed once their delete commits, and ids above
+ * movies.id-filter.max-id are never ruled out. Rows written to the database behind the application's back are only
+ * seen after a restart.
+ */
+@Component
+public class IdExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdExistenceFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Map<Class<?>, ConcurrentBitSet> ids;
+    private final Map<Class<?>, Counter> rejections;
+    private final Set<PendingRemoval> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    // Takes the DataSource rather than the JdbcTemplate bean: JPA builds IdExistenceListener, and so this filter, while
+    // the JdbcTemplate still waits for the EntityManagerFactory (deferred schema.sql initialization)
+    @Autowired
+    public IdExistenceFilter(DataSource dataSource, MeterRegistry meterRegistry,
+                             @Value("${movies.id-filter.enabled:true}") boolean enabled,
+                             @Value("${movies.id-filter.max-id:67108864}") long maxId) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+        this.ids = Map.of(Movie.class, new ConcurrentBitSet(maxId + 1),
+                Actor.class, new ConcurrentBitSet(maxId + 1),
+                Genre.class, new ConcurrentBitSet(maxId + 1));
+        this.rejections = Map.of(Movie.class, rejectionCounter(meterRegistry, Movie.class),
+                Actor.class, rejectionCounter(meterRegistry, Actor.class),
+                Genre.class, rejectionCounter(meterRegistry, Genre.class));
+        ids.forEach((type, bits) -> Gauge.builder("movies.lookup.known.ids", bits, ConcurrentBitSet::cardinality)
+                .description("Ids held by the in-memory existence filter")
+                .tag("entity", type.getSimpleName())
+                .register(meterRegistry));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, Class<?> type) {
+        return Counter.builder("movies.lookup.rejected")
+                .description("Lookups of unknown ids answered by the existence filter without a query")
+                .tag("entity", type.getSimpleName())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        load(Movie.class, "movie");
+        load(Actor.class, "actor");
+        load(Genre.class, "genre");
+        loaded = true;
+        logger.info("Existence filter loaded: {} movies, {} actors, {} genres", ids.get(Movie.class).cardinality(),
+                ids.get(Actor.class).cardinality(), ids.get(Genre.class).cardinality());
+    }
+
+    private void load(Class<?> type, String table) {
+        ConcurrentBitSet bits = ids.get(type);
+        jdbcTemplate.query("select id from " + table, rs -> {
+            bits.set(rs.getLong(1));
+        });
+    }
+
+    // False only when the id certainly does not exist; true means "ask the database"
+    public boolean mightExist(Class<?> type, Long id) {
+        if (!loaded || id == null) {
+            return true;
+        }
+        ConcurrentBitSet bits = ids.get(type);
+        if (id > 0 && (!bits.inRange(id) || bits.get(id))) {
+            return true;
+        }
+        rejections.get(type).increment();
+        return false;
+    }
+
+    // Throws the same ResourceNotFoundException as the database lookup would, without running it
+    public void rejectUnknown(Class<?> type, Long id) {
+        if (!mightExist(type, id)) {
+            throw new ResourceNotFoundException(type.getSimpleName() + " not found with id " + id);
+        }
+    }
+
+    public void rejectUnknown(Class<?> type, Collection<Long> idList) {
+        if (idList != null) {
+            idList.forEach(id -> rejectUnknown(type, id));
+        }
+    }
+
+    // The ids worth querying for; the others are certainly missing
+    public List<Long> retainPossible(Class<?> type, List<Long> idList) {
+        return idList.stream().filter(id -> mightExist(type, id)).toList();
+    }
+
+    void add(Class<?> type, Long id) {
+        ConcurrentBitSet bits = ids.get(type);
+        if (bits == null || id == null) {
+            return;
+        }
+        if (pendingRemovals.isEmpty()) {
+            bits.set(id);
+            return;
+        }
+        // SQLite may hand a committed delete's id to the next insert before the delete's afterCommit runs;
+        // the insert wins, so the late removal must not clear it
+        synchronized (bits) {
+            pendingRemovals.remove(new PendingRemoval(type, id));
+            bits.set(id);
+        }
+    }
+
+    // A delete was flushed; the id is kept until removalCompleted reports the outcome
+    void removalPending(Class<?> type, Long id) {
+        if (ids.containsKey(type) && id != null) {
+            pendingRemovals.add(new PendingRemoval(type, id));
+        }
+    }
+
+    void removalCompleted(Class<?> type, Long id, boolean committed) {
+        ConcurrentBitSet bits = ids.get(type);
+        if (bits == null || id == null) {
+            return;
+        }
+        PendingRemoval removal = new PendingRemoval(type, id);
+        synchronized (bits) {
+            // Clear before dropping the marker: an add that no longer sees the marker must find the bit cleared
+            if (committed && pendingRemovals.contains(removal)) {
+                bits.clear(id);
+            }
+            pendingRemovals.remove(removal);
+        }
+    }
+
+    void remove(Class<?> type, Long id) {
+        ConcurrentBitSet bits = ids.get(type);
+        if (bits != null && id != null) {
+            bits.clear(id);
+        }
+    }
+
+    private record PendingRemoval(Class<?> type, long id) {
+    }
+}
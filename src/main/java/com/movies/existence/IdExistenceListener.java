@@ -0,0 +1,59 @@
+package com.movies.existence;
+
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener keeping {@link IdExistenceFilter} current. Rows inserted with plain JDBC (the batched
+ * get-or-create) are picked up when they are read back, through @PostLoad.
+ */
+@Component
+public class IdExistenceListener {
+
+    private final IdExistenceFilter filter;
+
+    public IdExistenceListener(IdExistenceFilter filter) {
+        this.filter = filter;
+    }
+
+    @PostPersist
+    @PostLoad
+    public void added(Object entity) {
+        filter.add(entity.getClass(), idOf(entity));
+    }
+
+    // The row is gone for other connections only once the delete commits, and may come back with a rollback,
+    // so the id is cleared after commit; until then it still "might exist"
+    @PostRemove
+    public void removed(Object entity) {
+        Class<?> type = entity.getClass();
+        Long id = idOf(entity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            filter.remove(type, id);
+            return;
+        }
+        filter.removalPending(type, id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                filter.removalCompleted(type, id, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static Long idOf(Object entity) {
+        return switch (entity) {
+            case Movie movie -> movie.getId();
+            case Actor actor -> actor.getId();
+            case Genre genre -> genre.getId();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.movies.graph;
+
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogIndexWorker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-memory bipartite graph of actors and movies built from movie_actor: one CSR table per direction, plain int arrays
+ * indexed by entity id. Committed link changes are applied by a single background thread, which re-reads the changed
+ * movie's cast and records the new adjacency of the touched nodes as overrides on top of the CSR tables; once there are
+ * too many overrides the tables are rebuilt. Every change is published as a new immutable state with one volatile
+ * write, so a query reads the state once and sees a movie's cast and its actors' movies from the same change.
+ */
+@Component
+public class CoStarGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoStarGraph.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactThreshold;
+    private final CatalogIndexWorker worker = new CatalogIndexWorker("Co-star graph", "co-star-graph", logger, this::rebuild);
+    private volatile State state = new State(Csr.EMPTY, Csr.EMPTY);
+
+    // CSR tables plus the adjacency of nodes changed since they were built. Never modified once published
+    private static final class State {
+        final Csr movieActors;
+        final Csr actorMovies;
+        final Map<Integer, int[]> movieOverrides;
+        final Map<Integer, int[]> actorOverrides;
+        final long edgeCount;
+
+        State(Csr movieActors, Csr actorMovies) {
+            this(movieActors, actorMovies, Map.of(), Map.of(), movieActors.edgeCount());
+        }
+
+        State(Csr movieActors, Csr actorMovies, Map<Integer, int[]> movieOverrides, Map<Integer, int[]> actorOverrides,
+              long edgeCount) {
+            this.movieActors = movieActors;
+            this.actorMovies = actorMovies;
+            this.movieOverrides = movieOverrides;
+            this.actorOverrides = actorOverrides;
+            this.edgeCount = edgeCount;
+        }
+
+        int overrideCount() {
+            return movieOverrides.size() + actorOverrides.size();
+        }
+
+        int[] actorsOf(int movieId) {
+            int[] override = movieOverrides.get(movieId);
+            return override != null ? override : movieActors.neighbours(movieId);
+        }
+
+        int[] moviesOf(int actorId) {
+            int[] override = actorOverrides.get(actorId);
+            return override != null ? override : actorMovies.neighbours(actorId);
+        }
+
+        boolean forEachActor(int movieId, Csr.IntVisitor visitor) {
+            int[] override = movieOverrides.get(movieId);
+            return override != null ? visitAll(override, visitor) : movieActors.forEach(movieId, visitor);
+        }
+
+        boolean forEachMovie(int actorId, Csr.IntVisitor visitor) {
+            int[] override = actorOverrides.get(actorId);
+            return override != null ? visitAll(override, visitor) : actorMovies.forEach(actorId, visitor);
+        }
+
+        private static boolean visitAll(int[] values, Csr.IntVisitor visitor) {
+            for (int value : values) {
+                if (!visitor.visit(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public CoStarGraph(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                       @Value("${movies.graph.compact-threshold:10000}") int compactThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactThreshold = compactThreshold;
+        Gauge.builder("movies.graph.edges", this, graph -> graph.state.edgeCount)
+                .description("Actor-movie links in the co-star graph")
+                .register(meterRegistry);
+        Gauge.builder("movies.graph.overrides", this, graph -> graph.state.overrideCount())
+                .description("Nodes changed since the co-star graph's CSR tables were built")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws InterruptedException, ExecutionException {
+        worker.rebuildNow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.MOVIE) {
+            long movieId = event.getId();
+            worker.submit(movieId, "movie " + movieId, () -> resync(movieId));
+        }
+    }
+
+    // Worker thread only
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        int[][] edges = {new int[1024], new int[1024]};
+        int[] size = new int[1];
+        int[] maxIds = new int[2];
+        jdbcTemplate.query("select movie_id, actor_id from movie_actor", rs -> {
+            long movieId = rs.getLong(1);
+            long actorId = rs.getLong(2);
+            if (movieId > Integer.MAX_VALUE || actorId > Integer.MAX_VALUE) {
+                return;
+            }
+            if (size[0] == edges[0].length) {
+                edges[0] = Arrays.copyOf(edges[0], size[0] * 2);
+                edges[1] = Arrays.copyOf(edges[1], size[0] * 2);
+            }
+            edges[0][size[0]] = (int) movieId;
+            edges[1][size[0]] = (int) actorId;
+            size[0]++;
+            maxIds[0] = Math.max(maxIds[0], (int) movieId);
+            maxIds[1] = Math.max(maxIds[1], (int) actorId);
+        });
+        Csr movieActors = Csr.build(maxIds[0] + 1, edges[0], edges[1], size[0]);
+        Csr actorMovies = Csr.build(maxIds[1] + 1, edges[1], edges[0], size[0]);
+        state = new State(movieActors, actorMovies);
+        logger.info("Co-star graph built: {} links in {} ms", size[0], System.currentTimeMillis() - start);
+    }
+
+    // Worker thread only: replaces the movie's cast with the stored one and patches the actors that gained or lost it.
+    // The override maps are copied per change, which the compact threshold keeps bounded
+    private void resync(long movieId) {
+        if (movieId > Integer.MAX_VALUE) {
+            return;
+        }
+        int movie = (int) movieId;
+        int[] stored = jdbcTemplate.queryForList("select actor_id from movie_actor where movie_id = ?", Long.class, movieId)
+                .stream().mapToInt(Long::intValue).sorted().toArray();
+        State current = state;
+        int[] previous = current.actorsOf(movie);
+        Map<Integer, int[]> actorOverrides = new HashMap<>(current.actorOverrides);
+        for (int actor : previous) {
+            if (Arrays.binarySearch(stored, actor) < 0) {
+                actorOverrides.put(actor, without(current.moviesOf(actor), movie));
+            }
+        }
+        for (int actor : stored) {
+            if (Arrays.binarySearch(previous, actor) < 0) {
+                actorOverrides.put(actor, with(current.moviesOf(actor), movie));
+            }
+        }
+        Map<Integer, int[]> movieOverrides = new HashMap<>(current.movieOverrides);
+        movieOverrides.put(movie, stored);
+        State next = new State(current.movieActors, current.actorMovies, movieOverrides, actorOverrides,
+                current.edgeCount + stored.length - previous.length);
+        if (next.overrideCount() > compactThreshold) {
+            rebuild();
+        } else {
+            state = next;
+        }
+    }
+
+    private static int[] with(int[] sorted, int value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position >= 0) {
+            return sorted;
+        }
+        int insertAt = -position - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+        return result;
+    }
+
+    private static int[] without(int[] sorted, int value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position < 0) {
+            return sorted;
+        }
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, position);
+        System.arraycopy(sorted, position + 1, result, position, sorted.length - position - 1);
+        return result;
+    }
+
+    /**
+     * Actors within the given number of co-star hops (1 = appeared in a movie together), nearest first and by id
+     * within a distance. Whole levels are expanded until the limit is reached, then cut to it.
+     */
+    public Map<Integer, Integer> neighbourhood(int actorId, int hops, int limit) {
+        State current = state;
+        Map<Integer, Integer> distances = new HashMap<>();
+        distances.put(actorId, 0);
+        Set<Integer> seenMovies = new HashSet<>();
+        List<Integer> frontier = List.of(actorId);
+        for (int depth = 1; depth <= hops && !frontier.isEmpty() && distances.size() - 1 < limit; depth++) {
+            int level = depth;
+            List<Integer> next = new ArrayList<>();
+            for (int actor : frontier) {
+                current.forEachMovie(actor, movie -> seenMovies.add(movie) ? current.forEachActor(movie, other -> {
+                    if (distances.putIfAbsent(other, level) == null) {
+                        next.add(other);
+                    }
+                    return true;
+                }) : true);
+            }
+            frontier = next;
+        }
+        distances.remove(actorId);
+
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        distances.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * Shortest chain actor, movie, actor, ..., movie, actor from one actor to another with at most maxHops movies,
+     * or null if there is none. Bidirectional BFS: each round expands one whole level of the side with the smaller frontier.
+     */
+    public int[] shortestPath(int fromActorId, int toActorId, int maxHops) {
+        if (fromActorId == toActorId) {
+            return new int[]{fromActorId};
+        }
+        State current = state;
+        SearchSide from = new SearchSide(fromActorId);
+        SearchSide to = new SearchSide(toActorId);
+        while (from.depth + to.depth < maxHops && !from.frontier.isEmpty() && !to.frontier.isEmpty()) {
+            SearchSide expanding = from.frontier.size() <= to.frontier.size() ? from : to;
+            Integer meeting = expanding.expandLevel(current, expanding == from ? to : from);
+            if (meeting != null) {
+                return join(from, to, meeting);
+            }
+        }
+        return null;
+    }
+
+    private record Visit(int parentActor, int viaMovie, int depth) {
+    }
+
+    private static final class SearchSide {
+        final Map<Integer, Visit> visits = new HashMap<>();
+        final Set<Integer> seenMovies = new HashSet<>();
+        List<Integer> frontier;
+        int depth;
+
+        SearchSide(int root) {
+            visits.put(root, new Visit(-1, -1, 0));
+            frontier = List.of(root);
+        }
+
+        // Returns the actor where the two searches meet on the shortest total path, if they met in this level
+        Integer expandLevel(State current, SearchSide other) {
+            depth++;
+            List<Integer> next = new ArrayList<>();
+            int[] best = {-1, Integer.MAX_VALUE};
+            for (int actor : frontier) {
+                current.forEachMovie(actor, movie -> seenMovies.add(movie) ? current.forEachActor(movie, reached -> {
+                    if (!visits.containsKey(reached)) {
+                        visits.put(reached, new Visit(actor, movie, depth));
+                        next.add(reached);
+                        Visit otherVisit = other.visits.get(reached);
+                        if (otherVisit != null && depth + otherVisit.depth() < best[1]) {
+                            best[0] = reached;
+                            best[1] = depth + otherVisit.depth();
+                        }
+                    }
+                    return true;
+                }) : true);
+            }
+            frontier = next;
+            return best[0] >= 0 ? best[0] : null;
+        }
+
+        // meeting, movie, actor, ..., root
+        List<Integer> chainTo(int meeting) {
+            List<Integer> chain = new ArrayList<>();
+            int actor = meeting;
+            chain.add(actor);
+            Visit visit = visits.get(actor);
+            while (visit.parentActor() >= 0) {
+                chain.add(visit.viaMovie());
+                chain.add(visit.parentActor());
+                visit = visits.get(visit.parentActor());
+            }
+            return chain;
+        }
+    }
+
+    private static int[] join(SearchSide from, SearchSide to, int meeting) {
+        List<Integer> path = from.chainTo(meeting);
+        Collections.reverse(path);
+        List<Integer> rest = to.chainTo(meeting);
+        path.addAll(rest.subList(1, rest.size()));
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
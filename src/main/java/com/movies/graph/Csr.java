@@ -0,0 +1,78 @@
+package com.movies.graph;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sparse row adjacency: the neighbours of node n are targets[offsets[n]] .. targets[offsets[n + 1] - 1],
+ * sorted. Nodes are entity ids, so offsets has one slot per id up to the largest one. Immutable once built.
+ */
+final class Csr {
+
+    static final Csr EMPTY = new Csr(new int[1], new int[0]);
+
+    private final int[] offsets;
+    private final int[] targets;
+
+    private Csr(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    // Counting sort of the edge list (sources[i] -> destinations[i]) by source
+    static Csr build(int nodeCount, int[] sources, int[] destinations, int edgeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] targets = new int[edgeCount];
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            targets[cursor[sources[i]]++] = destinations[i];
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            Arrays.sort(targets, offsets[n], offsets[n + 1]);
+        }
+        return new Csr(offsets, targets);
+    }
+
+    int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    // A copy of the node's neighbours; empty for nodes beyond the table
+    int[] neighbours(int node) {
+        if (node < 0 || node >= nodeCount()) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+    }
+
+    int degree(int node) {
+        return node < 0 || node >= nodeCount() ? 0 : offsets[node + 1] - offsets[node];
+    }
+
+    // Visits the neighbours without copying them; stops early when the visitor returns false
+    boolean forEach(int node, IntVisitor visitor) {
+        if (node < 0 || node >= nodeCount()) {
+            return true;
+        }
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            if (!visitor.visit(targets[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    interface IntVisitor {
+        boolean visit(int value);
+    }
+}
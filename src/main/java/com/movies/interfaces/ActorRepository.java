@@ -4,12 +4,23 @@ import com.movies.entities.Actor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ActorRepository extends JpaRepository<Actor, Long> {
+public interface ActorRepository extends JpaRepository<Actor, Long>, ActorRepositoryCustom {
     Page<Actor> findByNameContainingIgnoreCase(String name, Pageable pageable);
     Optional<Actor> findByNameAndBirthDate(String name, LocalDate birthDate);
+    List<Actor> findByNameIn(Collection<String> names);
+
+    // Which of the given ids exist, without loading the entities
+    @Query("select a.id from Actor a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.version from Actor a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
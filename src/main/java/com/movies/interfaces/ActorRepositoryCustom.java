@@ -0,0 +1,10 @@
+package com.movies.interfaces;
+
+import com.movies.entities.Actor;
+
+import java.util.Collection;
+
+// Writes that Spring Data cannot express; implemented in ActorRepositoryImpl
+public interface ActorRepositoryCustom {
+    int[] insertIgnoringExisting(Collection<Actor> actors);
+}
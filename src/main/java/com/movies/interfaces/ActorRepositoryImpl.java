@@ -0,0 +1,30 @@
+package com.movies.interfaces;
+
+import com.movies.entities.Actor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ActorRepositoryImpl implements ActorRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ActorRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // One JDBC batch; actors whose (name, birth_date) already exists are skipped by the unique index, even if another
+    // transaction inserted them concurrently. Birth dates are bound as java.sql.Date, the same way Hibernate binds LocalDate.
+    // Returns the rows inserted per actor, in order: 1, or 0 where it already existed
+    @Override
+    public int[] insertIgnoringExisting(Collection<Actor> actors) {
+        List<Object[]> rows = new ArrayList<>(actors.size());
+        for (Actor actor : actors) {
+            rows.add(new Object[]{actor.getName(), Date.valueOf(actor.getBirthDate())});
+        }
+        return jdbcTemplate.batchUpdate("insert or ignore into actor (name, birth_date) values (?, ?)", rows);
+    }
+}
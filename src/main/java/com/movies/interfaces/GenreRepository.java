@@ -3,12 +3,24 @@ package com.movies.interfaces;
 import com.movies.entities.Genre;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface GenreRepository extends JpaRepository<Genre, Long> {
+public interface GenreRepository extends JpaRepository<Genre, Long>, GenreRepositoryCustom {
     Optional<Genre> findByName(String name);
+    List<Genre> findByNameIn(Collection<String> names);
     Page<Genre> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // Which of the given ids exist, without loading the entities
+    @Query("select g.id from Genre g where g.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select g.version from Genre g where g.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.movies.interfaces;
+
+import java.util.Collection;
+
+// Writes that Spring Data cannot express; implemented in GenreRepositoryImpl
+public interface GenreRepositoryCustom {
+    int[] insertIgnoringExisting(Collection<String> names);
+}
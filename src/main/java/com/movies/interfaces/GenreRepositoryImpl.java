@@ -0,0 +1,27 @@
+package com.movies.interfaces;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class GenreRepositoryImpl implements GenreRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenreRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // One JDBC batch; names that already exist are skipped by the unique index, even if inserted concurrently.
+    // Returns the rows inserted per name, in order: 1, or 0 where it already existed
+    @Override
+    public int[] insertIgnoringExisting(Collection<String> names) {
+        List<Object[]> rows = new ArrayList<>(names.size());
+        for (String name : names) {
+            rows.add(new Object[]{name});
+        }
+        return jdbcTemplate.batchUpdate("insert or ignore into genre (name) values (?)", rows);
+    }
+}
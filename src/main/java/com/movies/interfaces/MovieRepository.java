@@ -4,17 +4,41 @@ import com.movies.entities.Actor;
 import com.movies.entities.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieRepositoryCustom {
     Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
-    Page<Movie> findByReleaseYear(int releaseYear, Pageable pageable);
-    Page<Movie> findByActorsId(Long actorId, Pageable pageable);
     Optional<Movie> findByTitleAndReleaseYearAndDuration(String title, int releaseYear, int duration);
-    Page<Movie> findByGenresId(Long genreId, Pageable pageable);
+
+    // Multi-get: the two collections are fetched by separate queries to avoid an actors x genres cartesian product.
+    // Run both in one persistence context and the second fills in the genres of the movies returned by the first.
+    @Query("select distinct m from Movie m left join fetch m.actors where m.id in :ids")
+    List<Movie> findWithActorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct m from Movie m left join fetch m.genres where m.id in :ids")
+    List<Movie> findWithGenresByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select m.version from Movie m where m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Everything a movie's representation depends on: its own version plus those of its actors and genres
+    interface VersionSummary {
+        long getVersion();
+        long getActorVersions();
+        long getGenreVersions();
+    }
+
+    @Query("select m.version as version, " +
+            "(select coalesce(sum(a.version), 0) from Movie m2 join m2.actors a where m2.id = m.id) as actorVersions, " +
+            "(select coalesce(sum(g.version), 0) from Movie m3 join m3.genres g where m3.id = m.id) as genreVersions " +
+            "from Movie m where m.id = :id")
+    Optional<VersionSummary> findVersionSummaryById(@Param("id") Long id);
 }
@@ -0,0 +1,12 @@
+package com.movies.interfaces;
+
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.entities.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+// Queries that Spring Data cannot derive; implemented in MovieRepositoryImpl
+public interface MovieRepositoryCustom {
+    Page<MovieMinimalDTO> findMinimal(Specification<Movie> spec, Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package com.movies.interfaces;
+
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.entities.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class MovieRepositoryImpl implements MovieRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Specification filtering with a constructor projection, so no Movie entities are materialized
+    @Override
+    public Page<MovieMinimalDTO> findMinimal(Specification<Movie> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<MovieMinimalDTO> query = cb.createQuery(MovieMinimalDTO.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.construct(MovieMinimalDTO.class,
+                root.get("id"), root.get("title"), root.get("releaseYear"), root.get("duration")));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        TypedQuery<MovieMinimalDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<MovieMinimalDTO> content = typedQuery.getResultList();
+
+        // The count is skipped when the page itself tells the total (e.g. a short first page)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Movie> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,27 @@
+package com.movies.monitoring;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+// Counts Connection.commit() calls made on behalf of the current HTTP request (see QueryBudgetFilter)
+@Component
+public class CommitCountListener implements MethodExecutionListener {
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (!(executionContext.getTarget() instanceof Connection) || !"commit".equals(executionContext.getMethod().getName())) {
+            return;
+        }
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null && executionContext.getThrown() == null) {
+            stats.recordCommit();
+        }
+    }
+}
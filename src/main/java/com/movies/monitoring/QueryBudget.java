@@ -0,0 +1,17 @@
+package com.movies.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements a controller method may issue per request,
+ * including the statements run by the security filters. Endpoints without the annotation
+ * fall back to {@code movies.sql.budget.default}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,124 @@
+package com.movies.monitoring;
+
+import com.movies.exceptions.QueryBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts SQL statements per HTTP request and compares them with the endpoint's {@link QueryBudget}.
+ * Runs ahead of the security filters so the JWT user lookup is part of the count.
+ * With {@code movies.sql.budget.fail-on-exceed=true} (test mode) an exceeded budget fails the request. The check runs
+ * after the response has been written, so only MockMvc tests see the failure; a real client has already received
+ * its status, and the overrun is left to the exception logged by the container.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final int nPlusOneThreshold;
+    private final boolean failOnExceed;
+
+    @Autowired
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${movies.sql.budget.default:20}") int defaultBudget,
+                             @Value("${movies.sql.budget.n-plus-one-threshold:5}") int nPlusOneThreshold,
+                             @Value("${movies.sql.budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+        }
+        evaluate(request, stats);
+    }
+
+    private void evaluate(HttpServletRequest request, RequestQueryStats stats) {
+        // Route template rather than the raw URI keeps the metric tags low-cardinality
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNKNOWN";
+        String endpoint = request.getMethod() + " " + route;
+
+        DistributionSummary.builder("movies.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+
+        // Each commit is a journal sync on SQLite; more than one means the work was not a single unit
+        DistributionSummary.builder("movies.sql.commits")
+                .description("Transaction commits per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(stats.getCommits());
+
+        for (Map.Entry<String, Integer> shape : stats.getShapeCounts().entrySet()) {
+            if (shape.getValue() >= nPlusOneThreshold) {
+                counter("movies.sql.n_plus_one", request.getMethod(), route).increment();
+                logger.warn("{}: possible N+1, statement executed {} times: {}", endpoint, shape.getValue(), shape.getKey());
+            }
+        }
+
+        int budget = budgetFor(request);
+        if (stats.getStatements() > budget) {
+            counter("movies.sql.budget.exceeded", request.getMethod(), route).increment();
+            String message = endpoint + " executed " + stats.getStatements() +
+                    " SQL statements, exceeding its budget of " + budget;
+            if (failOnExceed) {
+                throw new QueryBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    private int budgetFor(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private Counter counter(String name, String method, String route) {
+        return Counter.builder(name)
+                .tag("method", method)
+                .tag("uri", route)
+                .register(meterRegistry);
+    }
+}
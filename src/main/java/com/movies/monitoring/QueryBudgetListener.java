@@ -0,0 +1,29 @@
+package com.movies.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Counts the statements executed on behalf of the current HTTP request (see QueryBudgetFilter)
+@Component
+public class QueryBudgetListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            return;
+        }
+        // A JDBC batch is a single round trip, so it counts once per distinct statement
+        for (QueryInfo queryInfo : queryInfoList) {
+            stats.record(queryInfo.getQuery());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.movies.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which Spring Data repository method (e.g. {@code MovieRepository.findMinimalByGenreId})
+ * is running on the current thread, so SQL statements can be attributed to their call site.
+ */
+@Component
+public class RepositoryMethodTracker implements BeanPostProcessor {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    public static String currentMethod() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> {
+                        String repositoryName = repositoryInformation.getRepositoryInterface().getSimpleName();
+                        // Outermost advice, so statements flushed by the transaction commit are attributed too
+                        proxyFactory.addAdvice(0, tracking(repositoryName));
+                    }));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor tracking(String repositoryName) {
+        return invocation -> {
+            String previous = CURRENT.get();
+            CURRENT.set(repositoryName + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.movies.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Statement and commit counters for the request bound to the current thread.
+ * Statements are grouped by "shape" (SQL with literals and IN lists collapsed) to spot N+1 patterns.
+ */
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    // Hibernate generates a small, fixed set of SQL strings, so shapes are cached per raw SQL
+    private static final int MAX_CACHED_SHAPES = 1024;
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+    private int statements;
+    private int commits;
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public void record(String sql) {
+        statements++;
+        shapeCounts.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    public void recordCommit() {
+        commits++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getCommits() {
+        return commits;
+    }
+
+    public Map<String, Integer> getShapeCounts() {
+        return shapeCounts;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = SHAPES.get(sql);
+        if (shape == null) {
+            shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+            shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+            shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+            shape = IN_LIST.matcher(shape).replaceAll("(?)");
+            if (SHAPES.size() < MAX_CACHED_SHAPES) {
+                SHAPES.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+}
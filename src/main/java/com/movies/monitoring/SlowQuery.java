@@ -0,0 +1,13 @@
+package com.movies.monitoring;
+
+import java.time.Instant;
+
+// A statement that took longer than movies.sql.slow-query.threshold-ms
+public record SlowQuery(Instant executedAt,
+                        long elapsedMs,
+                        String sql,
+                        String binds,
+                        String repositoryMethod,
+                        String route,
+                        boolean success) {
+}
@@ -0,0 +1,106 @@
+package com.movies.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Times every statement and logs the ones slower than {@code movies.sql.slow-query.threshold-ms},
+ * together with redacted bind values, the repository method and the HTTP route that issued them.
+ */
+@Component
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMs;
+
+    @Autowired
+    public SlowQueryListener(SlowQueryLog slowQueryLog,
+                             @Value("${movies.sql.slow-query.threshold-ms:100}") long thresholdMs) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMs = thresholdMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs) {
+            return;
+        }
+        String repositoryMethod = RepositoryMethodTracker.currentMethod();
+        String route = currentRoute();
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            SlowQuery slowQuery = new SlowQuery(
+                    Instant.now(),
+                    execInfo.getElapsedTime(),
+                    queryInfo.getQuery(),
+                    redactedBinds(queryInfo),
+                    repositoryMethod != null ? repositoryMethod : "none",
+                    route,
+                    execInfo.isSuccess());
+            slowQueryLog.add(slowQuery);
+            logger.warn("Slow SQL ({} ms) repository={} route={} binds={} sql={}",
+                    slowQuery.elapsedMs(), slowQuery.repositoryMethod(), slowQuery.route(),
+                    slowQuery.binds(), slowQuery.sql());
+        }
+    }
+
+    private static String currentRoute() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return "none";
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Before handler mapping (e.g. the JWT user lookup) only the raw path is known
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    // Numbers and booleans are kept (ids, years, flags); everything else is reduced to its type
+    static String redactedBinds(QueryInfo queryInfo) {
+        StringJoiner batches = new StringJoiner(", ");
+        for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
+            StringJoiner binds = new StringJoiner(", ", "[", "]");
+            for (ParameterSetOperation operation : parameters) {
+                Object[] args = operation.getArgs();
+                if (args == null || args.length < 2) {
+                    continue;
+                }
+                binds.add(args[0] + "=" + redact(args[1]));
+            }
+            batches.add(binds.toString());
+        }
+        return batches.toString();
+    }
+
+    private static String redact(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        if (value instanceof CharSequence text) {
+            return "<String(" + text.length() + ")>";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+}
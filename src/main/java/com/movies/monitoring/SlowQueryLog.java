@@ -0,0 +1,59 @@
+package com.movies.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-size buffer holding the slowest statements seen since startup (or the last clear).
+ * Once full, a new entry only gets in by evicting the fastest one.
+ */
+@Component
+public class SlowQueryLog {
+
+    private final SlowQuery[] slots;
+    private int size;
+
+    public SlowQueryLog(@Value("${movies.sql.slow-query.capacity:50}") int capacity) {
+        this.slots = new SlowQuery[capacity];
+    }
+
+    public synchronized void add(SlowQuery query) {
+        if (slots.length == 0) {
+            return;
+        }
+        if (size < slots.length) {
+            slots[size++] = query;
+            return;
+        }
+        int fastest = 0;
+        for (int i = 1; i < size; i++) {
+            if (slots[i].elapsedMs() < slots[fastest].elapsedMs()) {
+                fastest = i;
+            }
+        }
+        if (query.elapsedMs() > slots[fastest].elapsedMs()) {
+            slots[fastest] = query;
+        }
+    }
+
+    // Slowest first
+    public synchronized List<SlowQuery> snapshot() {
+        List<SlowQuery> queries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            queries.add(slots[i]);
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::elapsedMs).reversed());
+        return queries;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[i] = null;
+        }
+        size = 0;
+    }
+}
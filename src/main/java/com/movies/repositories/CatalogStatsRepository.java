@@ -0,0 +1,131 @@
+package com.movies.repositories;
+
+import com.movies.DTOs.EntityStats;
+import com.movies.DTOs.YearStats;
+import com.movies.repositories.MovieAssociationRepository.Association;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Summary tables with the movie count and total duration per release year, genre and actor. The service mutations
+ * apply their changes here as deltas (or, for an actor's or genre's own movie list, as a recount of that one row)
+ * inside their transaction, so the statistics commit or roll back with the data. Reads never touch the catalog tables
+ * beyond a primary key lookup of each result row's name.
+ * Callers must run inside a transaction so the statements share the JPA connection.
+ */
+@Repository
+public class CatalogStatsRepository {
+
+    private static final String ACCUMULATE = " on conflict do update set movie_count = movie_count + excluded.movie_count,"
+            + " total_duration = total_duration + excluded.total_duration";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Adds (delta 1) or subtracts (delta -1) the movie's whole contribution: its year, genres and actors, as currently stored
+    public void applyMovie(long movieId, int delta) {
+        jdbcTemplate.update("insert into stats_by_year (release_year, movie_count, total_duration)"
+                + " select release_year, ?, ? * duration from movie where id = ?" + ACCUMULATE, delta, delta, movieId);
+        applyMovieLinks(Association.GENRES, movieId, delta);
+        applyMovieLinks(Association.ACTORS, movieId, delta);
+    }
+
+    // The movie's contribution to every actor (or genre) it is currently linked to
+    public void applyMovieLinks(Association association, long movieId, int delta) {
+        jdbcTemplate.update("insert into " + statsTable(association) + " (" + association.column + ", movie_count, total_duration)"
+                + " select l." + association.column + ", ?, ? * m.duration from " + association.table + " l"
+                + " join movie m on m.id = l.movie_id where l.movie_id = ?" + ACCUMULATE, delta, delta, movieId);
+    }
+
+    // A single link that was just added (delta 1) or removed (delta -1)
+    public void applyLink(Association association, long movieId, long otherId, int delta) {
+        jdbcTemplate.update("insert into " + statsTable(association) + " (" + association.column + ", movie_count, total_duration)"
+                + " select ?, ?, ? * duration from movie where id = ?" + ACCUMULATE, otherId, delta, delta, movieId);
+    }
+
+    // Recounts one actor's (or genre's) row from its links, after its movie list was replaced through the entity
+    public void recount(Association association, long otherId) {
+        jdbcTemplate.update("insert or replace into " + statsTable(association) + " (" + association.column + ", movie_count, total_duration)"
+                + " select ?, count(*), coalesce(sum(m.duration), 0) from " + association.table + " l"
+                + " join movie m on m.id = l.movie_id where l." + association.column + " = ?", otherId, otherId);
+    }
+
+    // The actor or genre is deleted along with all of its links
+    public void remove(Association association, long otherId) {
+        jdbcTemplate.update("delete from " + statsTable(association) + " where " + association.column + " = ?", otherId);
+    }
+
+    // Recovery: recomputes every table from the catalog
+    public void rebuild() {
+        jdbcTemplate.update("delete from stats_by_year");
+        jdbcTemplate.update("insert into stats_by_year (release_year, movie_count, total_duration)"
+                + " select release_year, count(*), sum(duration) from movie group by release_year");
+        for (Association association : Association.values()) {
+            jdbcTemplate.update("delete from " + statsTable(association));
+            jdbcTemplate.update("insert into " + statsTable(association) + " (" + association.column + ", movie_count, total_duration)"
+                    + " select l." + association.column + ", count(*), sum(m.duration) from " + association.table + " l"
+                    + " join movie m on m.id = l.movie_id group by l." + association.column);
+        }
+    }
+
+    public List<YearStats> findYears() {
+        return jdbcTemplate.query("select release_year, movie_count, total_duration from stats_by_year"
+                + " where movie_count > 0 order by release_year", YEAR_ROW);
+    }
+
+    // A year without movies has a zero row
+    public YearStats findYear(int releaseYear) {
+        return jdbcTemplate.query("select release_year, movie_count, total_duration from stats_by_year"
+                + " where release_year = ?", YEAR_ROW, releaseYear).stream().findFirst()
+                .orElseGet(() -> new YearStats(releaseYear, 0, 0));
+    }
+
+    // Most movies first
+    public List<EntityStats> findAll(Association association) {
+        return jdbcTemplate.query(selectEntityStats(association) + " where s.movie_count > 0"
+                + " order by s.movie_count desc, s." + association.column, ENTITY_ROW);
+    }
+
+    // In id order, one row more than the page so the caller can tell whether another page follows
+    public List<EntityStats> findPage(Association association, long offset, int limit) {
+        return jdbcTemplate.query(selectEntityStats(association) + " where s.movie_count > 0"
+                + " order by s." + association.column + " limit ? offset ?", ENTITY_ROW, limit, offset);
+    }
+
+    // Empty only if the actor or genre does not exist; one without movies has zero counts
+    public Optional<EntityStats> findOne(Association association, long otherId) {
+        return jdbcTemplate.query("select e.id, e.name, coalesce(s.movie_count, 0), coalesce(s.total_duration, 0)"
+                + " from " + entityTable(association) + " e left join " + statsTable(association) + " s"
+                + " on s." + association.column + " = e.id where e.id = ?", ENTITY_ROW, otherId).stream().findFirst();
+    }
+
+    private static String selectEntityStats(Association association) {
+        return "select s." + association.column + ", e.name, s.movie_count, s.total_duration from " + statsTable(association)
+                + " s join " + entityTable(association) + " e on e.id = s." + association.column;
+    }
+
+    private static String entityTable(Association association) {
+        return association == Association.ACTORS ? "actor" : "genre";
+    }
+
+    private static String statsTable(Association association) {
+        return association == Association.ACTORS ? "stats_by_actor" : "stats_by_genre";
+    }
+
+    private static final RowMapper<YearStats> YEAR_ROW = (rs, rowNum) ->
+            new YearStats(rs.getInt(1), rs.getLong(2), average(rs.getLong(3), rs.getLong(2)));
+
+    private static final RowMapper<EntityStats> ENTITY_ROW = (rs, rowNum) ->
+            new EntityStats(rs.getLong(1), rs.getString(2), rs.getLong(3), average(rs.getLong(4), rs.getLong(3)));
+
+    private static double average(long totalDuration, long movieCount) {
+        return movieCount == 0 ? 0 : (double) totalDuration / movieCount;
+    }
+}
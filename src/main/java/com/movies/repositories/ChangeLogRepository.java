@@ -0,0 +1,64 @@
+package com.movies.repositories;
+
+import com.movies.DTOs.ChangeDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Append-only change log (table change_log) read by sequence number. Appends must run inside the changing
+ * transaction so the entry commits or rolls back with the change.
+ */
+@Repository
+public class ChangeLogRepository {
+
+    private static final RowMapper<ChangeDTO> CHANGE_ROW = (rs, rowNum) -> new ChangeDTO(rs.getLong(1), rs.getString(2),
+            rs.getLong(3), rs.getString(4), Instant.ofEpochMilli(rs.getLong(5)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeLogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(String entityType, long entityId, String changeType, Instant changedAt) {
+        jdbcTemplate.update("insert into change_log (entity_type, entity_id, change_type, changed_at) values (?, ?, ?, ?)",
+                entityType, entityId, changeType, changedAt.toEpochMilli());
+    }
+
+    // Entries after the given sequence number, oldest first
+    public List<ChangeDTO> findAfter(long since, int limit) {
+        return jdbcTemplate.query("select seq, entity_type, entity_id, change_type, changed_at from change_log"
+                + " where seq > ? order by seq limit ?", CHANGE_ROW, since, limit);
+    }
+
+    // Highest sequence number handed out, including entries compacted away since; 0 before the first entry
+    public long findHead() {
+        return jdbcTemplate.query("select seq from sqlite_sequence where name = 'change_log'", (rs, rowNum) -> rs.getLong(1))
+                .stream().findFirst().orElse(0L);
+    }
+
+    // Drops entries older than the cutoff that a later entry for the same entity supersedes
+    public int removeSuperseded(Instant cutoff) {
+        return jdbcTemplate.update("delete from change_log where changed_at < ? and exists (select 1 from change_log later"
+                + " where later.entity_type = change_log.entity_type and later.entity_id = change_log.entity_id"
+                + " and later.seq > change_log.seq)", cutoff.toEpochMilli());
+    }
+
+    // Drops deletions older than the cutoff and returns the highest sequence number expired so far
+    public long expireDeletions(Instant cutoff) {
+        jdbcTemplate.update("insert into change_log_state (id, expired_through)"
+                + " select 1, coalesce(max(seq), 0) from change_log where change_type = 'DELETED' and changed_at < ?"
+                + " on conflict do update set expired_through = max(expired_through, excluded.expired_through)", cutoff.toEpochMilli());
+        jdbcTemplate.update("delete from change_log where change_type = 'DELETED' and changed_at < ?", cutoff.toEpochMilli());
+        return findExpiredThrough();
+    }
+
+    public long findExpiredThrough() {
+        return jdbcTemplate.query("select expired_through from change_log_state where id = 1", (rs, rowNum) -> rs.getLong(1))
+                .stream().findFirst().orElse(0L);
+    }
+}
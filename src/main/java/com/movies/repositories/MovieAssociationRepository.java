@@ -0,0 +1,158 @@
+package com.movies.repositories;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the movie_actor / movie_genre join tables directly, without loading either side's collection.
+ * Callers must run inside a transaction so the statements share the JPA connection.
+ */
+@Repository
+public class MovieAssociationRepository {
+
+    public enum Association {
+        ACTORS("movie_actor", "actor_id"),
+        GENRES("movie_genre", "genre_id");
+
+        final String table;
+        final String column;
+
+        Association(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public MovieAssociationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // Hibernate only bumps the version when the collection is changed through the entity, so do it here.
+    // Returns 0 if the movie is gone or no longer at the expected version
+    public int touchMovie(long movieId, long expectedVersion) {
+        return jdbcTemplate.update("update movie set version = version + 1 where id = ? and version = ?", movieId, expectedVersion);
+    }
+
+    // Links of one movie; counted from the primary key index, which starts with movie_id
+    public int countLinksOfMovie(Association association, long movieId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from " + association.table + " where movie_id = ?", Integer.class, movieId);
+        return count == null ? 0 : count;
+    }
+
+    // Links of one actor or genre; counted from the idx_movie_actor_actor_id / idx_movie_genre_genre_id index
+    public int countLinksTo(Association association, long otherId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from " + association.table + " where " + association.column + " = ?", Integer.class, otherId);
+        return count == null ? 0 : count;
+    }
+
+    // The actors (or genres) of one movie, from the primary key index
+    public List<Long> findLinkedIds(Association association, long movieId) {
+        return jdbcTemplate.queryForList(
+                "select " + association.column + " from " + association.table + " where movie_id = ?", Long.class, movieId);
+    }
+
+    // The movies of one actor or genre, from the idx_movie_actor_actor_id / idx_movie_genre_genre_id index
+    public List<Long> findMovieIdsLinkedTo(Association association, long otherId) {
+        return jdbcTemplate.queryForList(
+                "select movie_id from " + association.table + " where " + association.column + " = ?", Long.class, otherId);
+    }
+
+    // Bumps the version of every movie linked to the actor or genre, e.g. before the links are dropped
+    public int touchMoviesLinkedTo(Association association, long otherId) {
+        return jdbcTemplate.update("update movie set version = version + 1 where id in (select movie_id from "
+                + association.table + " where " + association.column + " = ?)", otherId);
+    }
+
+    public int deleteLinksOfMovie(Association association, long movieId) {
+        return jdbcTemplate.update("delete from " + association.table + " where movie_id = ?", movieId);
+    }
+
+    public int deleteLinksTo(Association association, long otherId) {
+        return jdbcTemplate.update("delete from " + association.table + " where " + association.column + " = ?", otherId);
+    }
+
+    // Answered from the join table's (movie_id, <other>_id) primary key index
+    public boolean linkExists(Association association, long movieId, long otherId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from " + association.table + " where movie_id = ? and " + association.column + " = ?)",
+                Boolean.class, movieId, otherId));
+    }
+
+    // Returns false if the link already existed
+    public boolean insertLink(Association association, long movieId, long otherId) {
+        return jdbcTemplate.update("insert or ignore into " + association.table + " (movie_id, " + association.column + ") values (?, ?)",
+                movieId, otherId) > 0;
+    }
+
+    // Returns false if there was no such link
+    public boolean deleteLink(Association association, long movieId, long otherId) {
+        return jdbcTemplate.update("delete from " + association.table + " where movie_id = ? and " + association.column + " = ?",
+                movieId, otherId) > 0;
+    }
+
+    // One JDBC batch; rows that already exist are skipped. Returns the number of rows inserted
+    public int insertLinks(Association association, long movieId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> batch = new ArrayList<>(ids);
+        int[] counts = jdbcTemplate.batchUpdate(
+                "insert or ignore into " + association.table + " (movie_id, " + association.column + ") values (?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, movieId);
+                        ps.setLong(2, batch.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                });
+        return sum(counts);
+    }
+
+    // Removes the listed links in a single statement. Returns the number of rows deleted
+    public int deleteLinks(Association association, long movieId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(
+                "delete from " + association.table + " where movie_id = :movieId and " + association.column + " in (:ids)",
+                new MapSqlParameterSource("movieId", movieId).addValue("ids", ids));
+    }
+
+    // Removes every link of the movie except the listed ones. Returns the number of rows deleted
+    public int deleteLinksExcept(Association association, long movieId, Collection<Long> keepIds) {
+        if (keepIds.isEmpty()) {
+            return deleteLinksOfMovie(association, movieId);
+        }
+        return namedJdbcTemplate.update(
+                "delete from " + association.table + " where movie_id = :movieId and " + association.column + " not in (:ids)",
+                new MapSqlParameterSource("movieId", movieId).addValue("ids", keepIds));
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);  // SUCCESS_NO_INFO (-2) is not counted
+        }
+        return total;
+    }
+}
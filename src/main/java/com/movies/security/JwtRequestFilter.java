@@ -1,5 +1,7 @@
 package com.movies.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
@@ -18,12 +20,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
     public JwtRequestFilter(CustomUserDetailsService userDetailsService,
-                            JwtTokenUtil jwtTokenUtil) {
+                            JwtTokenUtil jwtTokenUtil,
+                            MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
         this.jwtTokenUtil = jwtTokenUtil;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -31,6 +36,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain chain) throws ServletException, IOException {
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
+
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
@@ -58,9 +66,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 );
 
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                outcome = "authenticated";
+            } else {
+                outcome = "rejected";
             }
         }
 
+        // Only the token handling is timed, not the rest of the chain
+        sample.stop(Timer.builder("movies.security.jwt.filter")
+                .description("Time spent resolving the JWT bearer token")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+
         chain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.movies.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits /api requests with RateLimiter. Runs right after JwtRequestFilter, so authenticated requests are
+ * limited per user and anonymous ones per client address; logins are always limited per address, in their own
+ * bucket. GET, HEAD and OPTIONS count as reads, everything else as writes. Every limited response carries the
+ * X-RateLimit-* headers; a refused one is answered with 429 and Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final byte[] TOO_MANY_REQUESTS_BODY = "{\"error\":\"Too many requests, please retry later.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final Counter[] rejected = new Counter[RateLimiter.Kind.values().length];
+
+    @Autowired
+    public RateLimitFilter(RateLimiter rateLimiter, MeterRegistry meterRegistry,
+                           @Value("${movies.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        for (RateLimiter.Kind kind : RateLimiter.Kind.values()) {
+            rejected[kind.ordinal()] = Counter.builder("movies.ratelimit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("kind", kind.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/", request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        RateLimiter.Kind kind;
+        String key;
+        if (request.getRequestURI().startsWith(LOGIN_PATH, request.getContextPath().length())) {
+            kind = RateLimiter.Kind.LOGIN;
+            key = request.getRemoteAddr();
+        } else {
+            String method = request.getMethod();
+            kind = method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS")
+                    ? RateLimiter.Kind.READ : RateLimiter.Kind.WRITE;
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            key = authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)
+                    ? "user:" + authentication.getName() : request.getRemoteAddr();
+        }
+
+        RateLimiter.Decision decision = rateLimiter.acquire(kind, key);
+        response.setIntHeader("X-RateLimit-Limit", decision.limit());
+        response.setIntHeader("X-RateLimit-Remaining", decision.remaining());
+        response.setHeader("X-RateLimit-Reset", Long.toString(seconds(decision.resetNanos())));
+        if (decision.allowed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        rejected[kind.ordinal()].increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds(decision.retryAfterNanos()))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+    }
+
+    // Whole seconds, rounded up
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
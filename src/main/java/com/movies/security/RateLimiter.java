@@ -0,0 +1,127 @@
+package com.movies.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per client and request kind (reads, writes, logins), each kind with its own capacity and refill
+ * rate. A bucket is a single AtomicLong holding the time at which it will be full again (the "theoretical arrival
+ * time" of GCRA, which behaves exactly like a token bucket): taking a token pushes that time one refill interval
+ * later, and the request is refused if it would end up more than capacity intervals ahead of now. One CAS per request
+ * and no lock. A bucket that is full again holds no information, so such buckets are dropped by a periodic sweep; past
+ * movies.rate-limit.max-keys clients, new ones share one bucket per kind until the sweep makes room.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Kind { READ, WRITE, LOGIN }
+
+    public record Decision(boolean allowed, int limit, int remaining, long retryAfterNanos, long resetNanos) {
+    }
+
+    private final Limit[] limits = new Limit[Kind.values().length];
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    // Capacity and refill interval of one kind, with its buckets by client key
+    private static final class Limit {
+        final int capacity;
+        final long interval;
+        final long window;
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong overflow = new AtomicLong();
+
+        Limit(int capacity, double perSecond) {
+            if (capacity < 1 || perSecond <= 0) {
+                throw new IllegalArgumentException("Rate limits need a capacity of at least 1 and a positive refill rate");
+            }
+            this.capacity = capacity;
+            this.interval = Math.max(1, (long) (1_000_000_000L / perSecond));
+            this.window = interval * capacity;
+        }
+    }
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${movies.rate-limit.read.capacity:100}") int readCapacity,
+                       @Value("${movies.rate-limit.read.per-second:50}") double readPerSecond,
+                       @Value("${movies.rate-limit.write.capacity:20}") int writeCapacity,
+                       @Value("${movies.rate-limit.write.per-second:5}") double writePerSecond,
+                       @Value("${movies.rate-limit.login.capacity:10}") int loginCapacity,
+                       @Value("${movies.rate-limit.login.per-second:0.2}") double loginPerSecond,
+                       @Value("${movies.rate-limit.max-keys:100000}") int maxKeys) {
+        this(readCapacity, readPerSecond, writeCapacity, writePerSecond, loginCapacity, loginPerSecond, maxKeys, System::nanoTime);
+        Gauge.builder("movies.ratelimit.keys", this, RateLimiter::size)
+                .description("Clients with a rate limit bucket that is not full")
+                .register(meterRegistry);
+    }
+
+    RateLimiter(int readCapacity, double readPerSecond, int writeCapacity, double writePerSecond,
+                int loginCapacity, double loginPerSecond, int maxKeys, LongSupplier clock) {
+        limits[Kind.READ.ordinal()] = new Limit(readCapacity, readPerSecond);
+        limits[Kind.WRITE.ordinal()] = new Limit(writeCapacity, writePerSecond);
+        limits[Kind.LOGIN.ordinal()] = new Limit(loginCapacity, loginPerSecond);
+        this.maxKeys = maxKeys;
+        // Bucket times are kept relative to startup, so 0 (a new bucket) is always in the past
+        long origin = clock.getAsLong() - 1;
+        this.clock = () -> clock.getAsLong() - origin;
+    }
+
+    /**
+     * Takes one token from the client's bucket of the given kind. Refused requests take nothing, so a client that
+     * keeps retrying too early does not push its own recovery further out.
+     */
+    public Decision acquire(Kind kind, String key) {
+        Limit limit = limits[kind.ordinal()];
+        AtomicLong bucket = bucket(limit, key);
+        long now = clock.getAsLong();
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + limit.interval;
+            long ahead = next - now;
+            if (ahead > limit.window) {
+                return new Decision(false, limit.capacity, 0, ahead - limit.window, fullAt - now);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new Decision(true, limit.capacity, (int) ((limit.window - ahead) / limit.interval), 0, ahead);
+            }
+        }
+    }
+
+    private AtomicLong bucket(Limit limit, String key) {
+        AtomicLong bucket = limit.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (limit.buckets.size() >= maxKeys) {
+            return limit.overflow;
+        }
+        return limit.buckets.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    // A request racing the sweep may still take its token from a bucket just removed; it was full, so it loses at most one
+    @Scheduled(fixedDelayString = "${movies.rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        for (Limit limit : limits) {
+            limit.buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Limit limit : limits) {
+            size += limit.buckets.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,78 @@
+package com.movies.serialization;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes the movie, actor and genre list pages as application/json with CatalogJsonPageWriter, straight to the
+ * response stream through a generator of the application's ObjectMapper. It sits in front of the Jackson converter
+ * and declines every other type, so the documents are unchanged and everything else is still written by Jackson.
+ */
+public class CatalogJsonPageHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    public CatalogJsonPageHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type != null && canWrite(mediaType) && CatalogJsonPageWriter.supports(type);
+    }
+
+    // The element type of a page is only known from the declared type, which canWrite(Type, ...) checks
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (value instanceof Page<?> page && CatalogJsonPageWriter.canWrite(page)) {
+                CatalogJsonPageWriter.write(generator, page);
+            } else {
+                objectMapper.writerFor(objectMapper.constructType(type)).writeValue(generator, value);
+            }
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Only responses are written by this converter", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Only responses are written by this converter", inputMessage);
+    }
+}
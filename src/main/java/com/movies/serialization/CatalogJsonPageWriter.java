@@ -0,0 +1,180 @@
+package com.movies.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON for the list pages of movies, actors and genres, written field by field instead of through Jackson's bean
+ * serializers. The output is the document Jackson produces for a PageImpl of these types, with the same fields; the
+ * field names are encoded once, up front, and each row goes straight from the page content to the generator.
+ */
+final class CatalogJsonPageWriter {
+
+    private CatalogJsonPageWriter() {
+    }
+
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString RELEASE_YEAR = new SerializedString("releaseYear");
+    private static final SerializableString DURATION = new SerializedString("duration");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString PAGEABLE = new SerializedString("pageable");
+    private static final SerializableString PAGE_NUMBER = new SerializedString("pageNumber");
+    private static final SerializableString PAGE_SIZE = new SerializedString("pageSize");
+    private static final SerializableString SORT = new SerializedString("sort");
+    private static final SerializableString EMPTY = new SerializedString("empty");
+    private static final SerializableString SORTED = new SerializedString("sorted");
+    private static final SerializableString UNSORTED = new SerializedString("unsorted");
+    private static final SerializableString OFFSET = new SerializedString("offset");
+    private static final SerializableString PAGED = new SerializedString("paged");
+    private static final SerializableString UNPAGED = new SerializedString("unpaged");
+    private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString LAST = new SerializedString("last");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString NUMBER = new SerializedString("number");
+    private static final SerializableString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+    private static final SerializableString FIRST = new SerializedString("first");
+
+    private interface RowWriter<T> {
+        void write(JsonGenerator out, T row) throws IOException;
+    }
+
+    private static final RowWriter<MovieMinimalDTO> MOVIE_SUMMARY = (out, movie) -> {
+        out.writeStartObject();
+        writeId(out, movie.getId());
+        out.writeFieldName(TITLE);
+        out.writeString(movie.getTitle());
+        out.writeFieldName(RELEASE_YEAR);
+        out.writeNumber(movie.getReleaseYear());
+        out.writeFieldName(DURATION);
+        out.writeNumber(movie.getDuration());
+        out.writeEndObject();
+    };
+
+    // The JSON of both entities is their id and name; the movie back-references, birth date and version are ignored
+    private static final RowWriter<Actor> ACTOR = (out, actor) -> writeIdAndName(out, actor.getId(), actor.getName());
+
+    private static final RowWriter<Genre> GENRE = (out, genre) -> writeIdAndName(out, genre.getId(), genre.getName());
+
+    // Whether the declared type is a page this writer handles
+    static boolean supports(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return Page.class.isAssignableFrom(resolved.resolve(Object.class))
+                && rowWriterFor(resolved.as(Page.class).getGeneric(0).resolve()) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowWriter<Object> rowWriterFor(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        RowWriter<?> writer = null;
+        if (MovieMinimalDTO.class.isAssignableFrom(type)) {
+            writer = MOVIE_SUMMARY;
+        } else if (Actor.class.isAssignableFrom(type)) {
+            writer = ACTOR;
+        } else if (Genre.class.isAssignableFrom(type)) {
+            writer = GENRE;
+        }
+        return (RowWriter<Object>) writer;
+    }
+
+    // Paged requests only: an unpaged Pageable has no page number or size to write
+    static boolean canWrite(Page<?> page) {
+        return page.getPageable().isPaged();
+    }
+
+    // The rows' writer is picked per row class, which keeps type resolution off the write path
+    static void write(JsonGenerator out, Page<?> page) throws IOException {
+        out.writeStartObject();
+        out.writeFieldName(CONTENT);
+        out.writeStartArray();
+        RowWriter<Object> rows = null;
+        Class<?> rowClass = null;
+        for (Object row : page.getContent()) {
+            if (row.getClass() != rowClass) {
+                rowClass = row.getClass();
+                rows = rowWriterFor(rowClass);
+            }
+            rows.write(out, row);
+        }
+        out.writeEndArray();
+
+        Pageable pageable = page.getPageable();
+        out.writeFieldName(PAGEABLE);
+        out.writeStartObject();
+        out.writeFieldName(PAGE_NUMBER);
+        out.writeNumber(pageable.getPageNumber());
+        out.writeFieldName(PAGE_SIZE);
+        out.writeNumber(pageable.getPageSize());
+        writeSort(out, pageable.getSort());
+        out.writeFieldName(OFFSET);
+        out.writeNumber(pageable.getOffset());
+        out.writeFieldName(PAGED);
+        out.writeBoolean(true);
+        out.writeFieldName(UNPAGED);
+        out.writeBoolean(false);
+        out.writeEndObject();
+
+        out.writeFieldName(TOTAL_PAGES);
+        out.writeNumber(page.getTotalPages());
+        out.writeFieldName(TOTAL_ELEMENTS);
+        out.writeNumber(page.getTotalElements());
+        out.writeFieldName(LAST);
+        out.writeBoolean(page.isLast());
+        out.writeFieldName(SIZE);
+        out.writeNumber(page.getSize());
+        out.writeFieldName(NUMBER);
+        out.writeNumber(page.getNumber());
+        writeSort(out, page.getSort());
+        out.writeFieldName(NUMBER_OF_ELEMENTS);
+        out.writeNumber(page.getNumberOfElements());
+        out.writeFieldName(FIRST);
+        out.writeBoolean(page.isFirst());
+        out.writeFieldName(EMPTY);
+        out.writeBoolean(page.isEmpty());
+        out.writeEndObject();
+    }
+
+    private static void writeSort(JsonGenerator out, Sort sort) throws IOException {
+        out.writeFieldName(SORT);
+        out.writeStartObject();
+        out.writeFieldName(EMPTY);
+        out.writeBoolean(sort.isEmpty());
+        out.writeFieldName(SORTED);
+        out.writeBoolean(sort.isSorted());
+        out.writeFieldName(UNSORTED);
+        out.writeBoolean(sort.isUnsorted());
+        out.writeEndObject();
+    }
+
+    private static void writeIdAndName(JsonGenerator out, Long id, String name) throws IOException {
+        out.writeStartObject();
+        writeId(out, id);
+        out.writeFieldName(NAME);
+        out.writeString(name);
+        out.writeEndObject();
+    }
+
+    private static void writeId(JsonGenerator out, Long id) throws IOException {
+        out.writeFieldName(ID);
+        if (id == null) {
+            out.writeNull();
+        } else {
+            out.writeNumber(id);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.movies.serialization;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Protobuf encoding of the movie, actor and genre resources as described by proto/movies.proto. The entities and DTOs
+ * are written directly with CodedOutputStream instead of being copied into generated message classes first; the
+ * length of each nested message is computed just before it is written.
+ */
+final class CatalogProtobufEncoder {
+
+    private CatalogProtobufEncoder() {
+    }
+
+    private abstract static class MessageEncoder<T> {
+        abstract int size(T value);
+
+        abstract void writeFields(CodedOutputStream out, T value) throws IOException;
+
+        int sizeAsField(int field, T value) {
+            int size = size(value);
+            return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        }
+
+        void writeAsField(CodedOutputStream out, int field, T value) throws IOException {
+            out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(size(value));
+            writeFields(out, value);
+        }
+    }
+
+    // Genre and Actor: id = 1, name = 2
+    private static <T> MessageEncoder<T> idAndName(Function<T, Long> id, Function<T, String> name) {
+        return new MessageEncoder<>() {
+            @Override
+            int size(T value) {
+                return int64Size(1, id.apply(value)) + stringSize(2, name.apply(value));
+            }
+
+            @Override
+            void writeFields(CodedOutputStream out, T value) throws IOException {
+                writeInt64(out, 1, id.apply(value));
+                writeString(out, 2, name.apply(value));
+            }
+        };
+    }
+
+    private static final MessageEncoder<Genre> GENRE = idAndName(Genre::getId, Genre::getName);
+
+    private static final MessageEncoder<Actor> ACTOR = idAndName(Actor::getId, Actor::getName);
+
+    private static final MessageEncoder<Movie> MOVIE = new MessageEncoder<>() {
+        @Override
+        int size(Movie movie) {
+            int size = int64Size(1, movie.getId()) + stringSize(2, movie.getTitle())
+                    + CodedOutputStream.computeInt32Size(3, movie.getReleaseYear()) + CodedOutputStream.computeInt32Size(4, movie.getDuration());
+            for (Actor actor : movie.getActors()) {
+                size += ACTOR.sizeAsField(5, actor);
+            }
+            for (Genre genre : movie.getGenres()) {
+                size += GENRE.sizeAsField(6, genre);
+            }
+            return size;
+        }
+
+        @Override
+        void writeFields(CodedOutputStream out, Movie movie) throws IOException {
+            writeInt64(out, 1, movie.getId());
+            writeString(out, 2, movie.getTitle());
+            out.writeInt32(3, movie.getReleaseYear());
+            out.writeInt32(4, movie.getDuration());
+            for (Actor actor : movie.getActors()) {
+                ACTOR.writeAsField(out, 5, actor);
+            }
+            for (Genre genre : movie.getGenres()) {
+                GENRE.writeAsField(out, 6, genre);
+            }
+        }
+    };
+
+    private static final MessageEncoder<MovieMinimalDTO> MOVIE_SUMMARY = new MessageEncoder<>() {
+        @Override
+        int size(MovieMinimalDTO movie) {
+            return int64Size(1, movie.getId()) + stringSize(2, movie.getTitle())
+                    + CodedOutputStream.computeInt32Size(3, movie.getReleaseYear()) + CodedOutputStream.computeInt32Size(4, movie.getDuration());
+        }
+
+        @Override
+        void writeFields(CodedOutputStream out, MovieMinimalDTO movie) throws IOException {
+            writeInt64(out, 1, movie.getId());
+            writeString(out, 2, movie.getTitle());
+            out.writeInt32(3, movie.getReleaseYear());
+            out.writeInt32(4, movie.getDuration());
+        }
+    };
+
+    private static final MessageEncoder<Page<?>> PAGE_INFO = new MessageEncoder<>() {
+        @Override
+        int size(Page<?> page) {
+            return CodedOutputStream.computeInt32Size(1, page.getNumber()) + CodedOutputStream.computeInt32Size(2, page.getSize())
+                    + CodedOutputStream.computeInt64Size(3, page.getTotalElements()) + CodedOutputStream.computeInt32Size(4, page.getTotalPages());
+        }
+
+        @Override
+        void writeFields(CodedOutputStream out, Page<?> page) throws IOException {
+            out.writeInt32(1, page.getNumber());
+            out.writeInt32(2, page.getSize());
+            out.writeInt64(3, page.getTotalElements());
+            out.writeInt32(4, page.getTotalPages());
+        }
+    };
+
+    // MovieList, MovieSummaryList, ActorList and GenreList: items = 1, page = 2, missing_ids = 3 (packed)
+    private static void writeList(CodedOutputStream out, MessageEncoder<Object> items, Collection<?> values, Page<?> page,
+                                  List<Long> missingIds) throws IOException {
+        for (Object value : values) {
+            items.writeAsField(out, 1, value);
+        }
+        if (page != null) {
+            PAGE_INFO.writeAsField(out, 2, page);
+        }
+        if (missingIds != null && !missingIds.isEmpty()) {
+            int size = 0;
+            for (Long id : missingIds) {
+                size += CodedOutputStream.computeInt64SizeNoTag(id);
+            }
+            out.writeTag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(size);
+            for (Long id : missingIds) {
+                out.writeInt64NoTag(id);
+            }
+        }
+    }
+
+    // Whether values of the declared type can be encoded: a resource, or a page, collection or multi-get of one
+    static boolean supports(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve(Object.class);
+        if (Page.class.isAssignableFrom(raw) || Collection.class.isAssignableFrom(raw) || MultiGetResponse.class.isAssignableFrom(raw)) {
+            Class<?> element = elementType(resolved, raw);
+            return element != null && encoderFor(element) != null;
+        }
+        return encoderFor(raw) != null;
+    }
+
+    private static Class<?> elementType(ResolvableType resolved, Class<?> raw) {
+        Class<?> container = Page.class.isAssignableFrom(raw) ? Page.class
+                : MultiGetResponse.class.isAssignableFrom(raw) ? MultiGetResponse.class : Collection.class;
+        return resolved.as(container).getGeneric(0).resolve();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MessageEncoder<Object> encoderFor(Class<?> type) {
+        MessageEncoder<?> encoder = null;
+        if (Movie.class.isAssignableFrom(type)) {
+            encoder = MOVIE;
+        } else if (Actor.class.isAssignableFrom(type)) {
+            encoder = ACTOR;
+        } else if (Genre.class.isAssignableFrom(type)) {
+            encoder = GENRE;
+        } else if (MovieMinimalDTO.class.isAssignableFrom(type)) {
+            encoder = MOVIE_SUMMARY;
+        }
+        return (MessageEncoder<Object>) encoder;
+    }
+
+    static void write(Object value, Type type, OutputStream stream) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(stream);
+        Collection<?> items;
+        Page<?> page = null;
+        List<Long> missingIds = null;
+        if (value instanceof Page<?> valuePage) {
+            items = valuePage.getContent();
+            page = valuePage;
+        } else if (value instanceof MultiGetResponse<?> response) {
+            items = response.getItems();
+            missingIds = response.getMissingIds();
+        } else if (value instanceof Collection<?> collection) {
+            items = collection;
+        } else {
+            MessageEncoder<Object> encoder = encoderFor(value.getClass());
+            if (encoder == null) {
+                throw new IllegalArgumentException("No protobuf encoding for " + value.getClass().getName());
+            }
+            encoder.writeFields(out, value);
+            out.flush();
+            return;
+        }
+
+        // The declared element type, or for an untyped call the first element's; an empty list encodes the same either way
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(value.getClass());
+        Class<?> element = elementType(resolved, resolved.resolve(value.getClass()));
+        if ((element == null || element == Object.class) && !items.isEmpty()) {
+            element = items.iterator().next().getClass();
+        }
+        MessageEncoder<Object> encoder = element == null ? null : encoderFor(element);
+        if (encoder == null && !items.isEmpty()) {
+            throw new IllegalArgumentException("No protobuf encoding for elements of " + value.getClass().getName());
+        }
+        writeList(out, encoder, items, page, missingIds);
+        out.flush();
+    }
+
+    // proto3 leaves default values (0, empty string) off the wire
+
+    private static int int64Size(int field, Long value) {
+        return value == null || value == 0 ? 0 : CodedOutputStream.computeInt64Size(field, value);
+    }
+
+    private static void writeInt64(CodedOutputStream out, int field, Long value) throws IOException {
+        if (value != null && value != 0) {
+            out.writeInt64(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null || value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            out.writeString(field, value);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.movies.serialization;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes movies, actors and genres (single, paged, listed or multi-get) as application/x-protobuf, following
+ * proto/movies.proto. Response-only: request bodies stay JSON. Any other response type is not writable here, so
+ * asking for protobuf from another endpoint is answered with 406.
+ */
+public class CatalogProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public CatalogProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CatalogProtobufEncoder.supports(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && CatalogProtobufEncoder.supports(type != null ? type : clazz);
+    }
+
+    // The element type of a page or collection is only known from the declared type, which canWrite(Type, ...) checks
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CatalogProtobufEncoder.write(value, type, outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+}
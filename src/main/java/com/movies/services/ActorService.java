@@ -1,14 +1,26 @@
 package com.movies.services;
 
 import com.movies.DTOs.ActorDTO;
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.concurrency.RetryOnConflict;
 import com.movies.entities.Actor;
 import com.movies.entities.Movie;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogChangeEvent.ChangeType;
 import com.movies.exceptions.DuplicateEntityException;
 import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
 import com.movies.interfaces.ActorRepository;
 import com.movies.interfaces.MovieRepository;
+import com.movies.repositories.CatalogStatsRepository;
+import com.movies.repositories.MovieAssociationRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
 import com.movies.utils.AssociationUtils;
+import com.movies.utils.EntityTags;
+import com.movies.utils.IdListUtils;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,28 +32,121 @@ import java.util.stream.Collectors;
 
 
 @Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
 public class ActorService {
     private final ActorRepository actorRepository;
     private final MovieRepository movieRepository;
+    private final MovieAssociationRepository movieAssociationRepository;
+    private final IdExistenceFilter idExistenceFilter;
+    private final CatalogStatsRepository catalogStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository) {
+    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository,
+                        MovieAssociationRepository movieAssociationRepository, IdExistenceFilter idExistenceFilter,
+                        CatalogStatsRepository catalogStatsRepository, ApplicationEventPublisher eventPublisher) {
         this.actorRepository = actorRepository;
         this.movieRepository = movieRepository;
+        this.movieAssociationRepository = movieAssociationRepository;
+        this.idExistenceFilter = idExistenceFilter;
+        this.catalogStatsRepository = catalogStatsRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Page<Actor> getAllActors(Pageable pageable) {
         return actorRepository.findAll(pageable);
     }
 
+    // Actors for an ?ids= list, resolved with one IN query and returned in request order
+    public MultiGetResponse<Actor> getActorsByIds(List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctIds(ids);
+        List<Long> candidates = idExistenceFilter.retainPossible(Actor.class, distinctIds);
+        List<Actor> found = candidates.isEmpty() ? List.of() : actorRepository.findAllById(candidates);
+        return IdListUtils.inRequestOrder(distinctIds, found, Actor::getId);
+    }
+
     public Actor getActorById(Long id) {
+        idExistenceFilter.rejectUnknown(Actor.class, id);
         return actorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id " + id));
     }
 
+    // Throws ResourceNotFoundException for the first unknown id; ids the existence filter rules out need no query,
+    // the others are checked in one
+    public void ensureActorsExist(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        idExistenceFilter.rejectUnknown(Actor.class, ids);
+        Set<Long> existing = new HashSet<>(actorRepository.findExistingIds(ids));
+        for (Long id : ids) {
+            if (!existing.contains(id)) {
+                throw new ResourceNotFoundException("Actor not found with id " + id);
+            }
+        }
+    }
+
+    // Get-or-create by natural key (name, birth date), in input order without duplicates. When all actors exist this is one
+    // query; otherwise the missing ones are inserted with one JDBC batch and read back with one more query.
+    // Runs inside createMovieWithAssociations, whose retry re-runs the whole unit of work on a conflict
+    @Transactional
+    public List<Actor> getOrCreateActors(Collection<ActorDTO> actorDTOs) {
+        Map<NaturalKey, Actor> resolved = new LinkedHashMap<>();
+        for (ActorDTO actorDTO : actorDTOs) {
+            resolved.put(new NaturalKey(actorDTO.getName(), actorDTO.getBirthDate()), null);
+        }
+        if (resolved.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        resolveExisting(resolved);
+        List<Actor> missing = new ArrayList<>();
+        resolved.forEach((key, actor) -> {
+            if (actor == null) {
+                Actor newActor = new Actor();
+                newActor.setName(key.name());
+                newActor.setBirthDate(key.birthDate());
+                missing.add(newActor);
+            }
+        });
+        if (!missing.isEmpty()) {
+            int[] inserted = actorRepository.insertIgnoringExisting(missing);
+            resolveExisting(resolved);
+            // Only rows this batch inserted are new; the others were created meanwhile by another transaction
+            for (int i = 0; i < inserted.length; i++) {
+                Actor created = resolved.get(new NaturalKey(missing.get(i).getName(), missing.get(i).getBirthDate()));
+                if (created != null && inserted[i] == 1) {
+                    eventPublisher.publishEvent(CatalogChangeEvent.actor(created.getId(), ChangeType.CREATED));
+                }
+            }
+        }
+        return new ArrayList<>(resolved.values());
+    }
+
+    private void resolveExisting(Map<NaturalKey, Actor> resolved) {
+        Set<String> names = new HashSet<>();
+        resolved.keySet().forEach(key -> names.add(key.name()));
+        for (Actor actor : actorRepository.findByNameIn(names)) {
+            resolved.replace(new NaturalKey(actor.getName(), actor.getBirthDate()), actor);
+        }
+    }
+
+    private record NaturalKey(String name, LocalDate birthDate) {
+    }
+
+    // Version-only lookup for conditional requests; never hydrates the actor
+    public String getActorETag(Long id) {
+        idExistenceFilter.rejectUnknown(Actor.class, id);
+        return actorRepository.findVersionById(id)
+                .map(EntityTags::forVersion)
+                .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id " + id));
+    }
+
     public Page<Actor> getActorsByName(String name, Pageable pageable) {
         return actorRepository.findByNameContainingIgnoreCase(name, pageable);
     }
 
+    @Transactional
+    @RetryOnConflict
     public Actor createActor(ActorDTO actorDTO) {
         Optional<Actor> existingActor = actorRepository.findByNameAndBirthDate(actorDTO.getName(), actorDTO.getBirthDate());
         if (existingActor.isPresent()) {
@@ -70,34 +175,56 @@ public class ActorService {
             movieRepository.saveAll(movies);  // Persist updated movies to synchronize relationship
         }
 
-        return actorRepository.save(savedActor);  // Persist savedActor with synchronized relationships
+        savedActor = actorRepository.save(savedActor);  // Persist savedActor with synchronized relationships
+        if (actorDTO.getMovieIds() != null && !actorDTO.getMovieIds().isEmpty()) {
+            actorRepository.flush();
+            catalogStatsRepository.recount(Association.ACTORS, savedActor.getId());
+            publishLinksChanged(savedActor.getMovies().stream().map(Movie::getId).toList());
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.actor(savedActor.getId(), ChangeType.CREATED));
+        return savedActor;
     }
 
 
-    public String deleteActor(Long id, boolean forceDelete) {
+    @Transactional
+    @RetryOnConflict
+    public String deleteActor(Long id, boolean forceDelete, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getActorETag(id));
+        }
         Actor actor = getActorById(id);
-        // Check if the actor is associated with any movies
-        if (!actor.getMovies().isEmpty()) {
+        // Check if the actor is associated with any movies, without loading them
+        int movieCount = movieAssociationRepository.countLinksTo(Association.ACTORS, id);
+        if (movieCount > 0) {
             if (!forceDelete) {
                 // Return a message indicating the actor cannot be deleted due to associations
-                return "Unable to delete actor '" + actor.getName() + "' as they are associated with " + actor.getMovies().size() + " movies.";
+                return "Unable to delete actor '" + actor.getName() + "' as they are associated with " + movieCount + " movies.";
             } else {
-                // Force delete: remove the actor from all associated movies
-                for (Movie movie : actor.getMovies()) {
-                    movie.getActors().remove(actor);
-                    movieRepository.save(movie); // Ensure movie is updated to remove the actor
-                }
-                actor.getMovies().clear(); // Clear actor's movie associations
-                actorRepository.save(actor); // Save updated actor with cleared associations
+                // Force delete: drop all of the actor's movie links with one statement
+                movieAssociationRepository.touchMoviesLinkedTo(Association.ACTORS, id);  // their casts change
+                publishLinksChanged(movieAssociationRepository.findMovieIdsLinkedTo(Association.ACTORS, id));
+                movieAssociationRepository.deleteLinksTo(Association.ACTORS, id);
             }
         }
 
         // Proceed to delete the actor
-        actorRepository.deleteById(id);
+        catalogStatsRepository.remove(Association.ACTORS, id);
+        actorRepository.delete(actor);
+        eventPublisher.publishEvent(CatalogChangeEvent.actor(id, ChangeType.DELETED));
         return "Actor '" + actor.getName() + "' deleted successfully.";
     }
 
-    public Actor partialUpdateActor(Long id, ActorDTO actorDTO) {
+    // Movies whose cast was changed from the actor's side
+    private void publishLinksChanged(Collection<Long> movieIds) {
+        movieIds.forEach(movieId -> eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED)));
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public Actor partialUpdateActor(Long id, ActorDTO actorDTO, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getActorETag(id));
+        }
         Actor actor = getActorById(id); // Retrieve existing actor for updates
 
         // Update only the provided fields
@@ -109,9 +236,12 @@ public class ActorService {
             actor.setBirthDate(actorDTO.getBirthDate());
         }
 
+        Set<Long> relinkedMovieIds = new HashSet<>();
         if (actorDTO.getMovieIds() != null && !actorDTO.getMovieIds().isEmpty()) {
             // Fetch movies based on provided IDs
             Set<Movie> movies = AssociationUtils.getAssociatedMovies(actorDTO.getMovieIds(), movieRepository);
+            actor.getMovies().forEach(movie -> relinkedMovieIds.add(movie.getId()));
+            movies.forEach(movie -> relinkedMovieIds.add(movie.getId()));
 
             // Synchronize associations: clear existing and add new
             actor.getMovies().forEach(movie -> movie.getActors().remove(actor));
@@ -120,6 +250,13 @@ public class ActorService {
         }
 
         // Save the updated actor
-        return actorRepository.save(actor);
+        Actor savedActor = actorRepository.save(actor);
+        if (actorDTO.getMovieIds() != null && !actorDTO.getMovieIds().isEmpty()) {
+            actorRepository.flush();
+            catalogStatsRepository.recount(Association.ACTORS, id);  // its movie list was replaced
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.actor(id, ChangeType.UPDATED));
+        publishLinksChanged(relinkedMovieIds);
+        return savedActor;
     }
 }
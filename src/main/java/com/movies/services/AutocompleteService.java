@@ -0,0 +1,40 @@
+package com.movies.services;
+
+import com.movies.DTOs.SuggestionDTO;
+import com.movies.autocomplete.AutocompleteIndex;
+import com.movies.exceptions.InvalidQueryParameterException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typeahead over movie titles and actor names, answered from the in-memory {@link AutocompleteIndex} without a
+ * transaction or a query. The index follows committed changes asynchronously.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+public class AutocompleteService {
+
+    public static final int MAX_QUERY_LENGTH = 100;
+    public static final int MAX_LIMIT = 50;
+
+    private final AutocompleteIndex autocompleteIndex;
+
+    public AutocompleteService(AutocompleteIndex autocompleteIndex) {
+        this.autocompleteIndex = autocompleteIndex;
+    }
+
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        if (query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidQueryParameterException("'q' must be between 1 and " + MAX_QUERY_LENGTH + " characters.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidQueryParameterException("'limit' must be between 1 and " + MAX_LIMIT + ".");
+        }
+        return autocompleteIndex.suggest(query, limit).stream()
+                .map(s -> new SuggestionDTO(s.kind().name().toLowerCase(Locale.ROOT), (long) s.id(), s.name()))
+                .toList();
+    }
+}
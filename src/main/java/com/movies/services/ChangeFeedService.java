@@ -0,0 +1,98 @@
+package com.movies.services;
+
+import com.movies.DTOs.ChangeDTO;
+import com.movies.DTOs.ChangeFeedPage;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.exceptions.InvalidQueryParameterException;
+import com.movies.repositories.ChangeLogRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The change feed: every CatalogChangeEvent is appended to the change log inside the transaction that published it,
+ * and clients page through the log by sequence number. Compaction keeps the log at about one entry per entity:
+ * entries older than movies.changes.compact-after are dropped once a later entry for the same entity exists, and
+ * deletions older than movies.changes.deletion-retention are dropped altogether. A client whose position is before an
+ * expired deletion is told to resync. Clients re-read the entity for every entry that is not a deletion, so a
+ * compacted entry loses nothing they need.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+@Transactional(readOnly = true)
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final Clock clock;
+    private final Duration compactAfter;
+    private final Duration deletionRetention;
+    // Mirrors change_log_state so a feed read costs one query
+    private volatile long expiredThrough;
+
+    public ChangeFeedService(ChangeLogRepository changeLogRepository,
+                             @Value("${movies.changes.compact-after:P1D}") Duration compactAfter,
+                             @Value("${movies.changes.deletion-retention:P30D}") Duration deletionRetention) {
+        this.changeLogRepository = changeLogRepository;
+        this.clock = Clock.systemUTC();
+        this.compactAfter = compactAfter;
+        this.deletionRetention = deletionRetention;
+    }
+
+    // Runs in the publishing service's transaction (events are only published from transactional mutations)
+    @EventListener
+    @Transactional
+    public void record(CatalogChangeEvent event) {
+        changeLogRepository.append(event.getEntityType().name(), event.getId(), event.getChangeType().name(), clock.instant());
+    }
+
+    public ChangeFeedPage getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new InvalidQueryParameterException("'since' must be 0 or greater.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidQueryParameterException("'limit' must be between 1 and " + MAX_LIMIT + ".");
+        }
+        if (isExpired(since)) {
+            return new ChangeFeedPage(List.of(), changeLogRepository.findHead(), false, true);
+        }
+        List<ChangeDTO> changes = changeLogRepository.findAfter(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        List<ChangeDTO> page = hasMore ? changes.subList(0, limit) : changes;
+        long nextSince = page.isEmpty() ? since : page.get(page.size() - 1).getSeq();
+        return new ChangeFeedPage(page, nextSince, hasMore, false);
+    }
+
+    // Whether deletions after the given position were compacted away
+    public boolean isExpired(long since) {
+        return since < expiredThrough;
+    }
+
+    @Scheduled(initialDelayString = "${movies.changes.compaction-interval:PT1H}", fixedDelayString = "${movies.changes.compaction-interval:PT1H}")
+    @Transactional
+    public void compact() {
+        long start = System.currentTimeMillis();
+        int superseded = changeLogRepository.removeSuperseded(clock.instant().minus(compactAfter));
+        expiredThrough = changeLogRepository.expireDeletions(clock.instant().minus(deletionRetention));
+        logger.info("Change log compacted in {} ms: {} superseded entries removed, deletions expired through {}",
+                System.currentTimeMillis() - start, superseded, expiredThrough);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadExpiredThrough() {
+        expiredThrough = changeLogRepository.findExpiredThrough();
+    }
+}
@@ -0,0 +1,249 @@
+package com.movies.services;
+
+import com.movies.DTOs.ChangeDTO;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.repositories.ChangeLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for the change feed. After each commit one dispatcher thread reads the new change log entries
+ * (one query per burst of commits, whatever the number of subscribers) and appends them to every subscriber's bounded
+ * buffer; a small sender pool writes the buffers out. An idle subscriber is an async request plus an empty queue, with
+ * no thread of its own. A subscriber whose buffer overflows loses the buffered changes and gets a "resync" event
+ * carrying the last sequence number it received, from which it catches up through GET /api/changes. Event ids are
+ * change log sequence numbers, so a reconnect with Last-Event-ID resumes where the stream stopped.
+ */
+@Service
+public class ChangeStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    private static final int READ_BATCH = 500;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeFeedService changeFeedService;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(daemon("change-stream-dispatch"));
+    private final ExecutorService senders;
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final Counter resyncs;
+    // Last sequence number handed to the subscribers; dispatcher thread only
+    private long dispatchedThrough;
+
+    public ChangeStreamService(ChangeLogRepository changeLogRepository, ChangeFeedService changeFeedService, MeterRegistry meterRegistry,
+                               @Value("${movies.changes.stream.buffer-size:256}") int bufferSize,
+                               @Value("${movies.changes.stream.sender-threads:4}") int senderThreads,
+                               @Value("${movies.changes.stream.timeout:PT30M}") Duration timeout) {
+        this.changeLogRepository = changeLogRepository;
+        this.changeFeedService = changeFeedService;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.senders = Executors.newFixedThreadPool(senderThreads, daemon("change-stream-send"));
+        Gauge.builder("movies.changes.stream.subscribers", subscribers, Set::size)
+                .description("Open change stream connections")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("movies.changes.stream.resyncs")
+                .description("Change stream subscribers told to resync after their buffer overflowed")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws InterruptedException, ExecutionException {
+        dispatcher.submit(() -> dispatchedThrough = changeLogRepository.findHead()).get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a stream. With a last event id the changes after it are replayed first; if they no longer fit the buffer
+     * (or were compacted) the stream starts with a resync event instead.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(newEmitter());
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(ex -> subscribers.remove(subscriber));
+        // Registered on the dispatcher thread, so the replay ends exactly where live delivery starts
+        dispatcher.execute(() -> {
+            try {
+                subscriber.lastSent = lastEventId == null ? dispatchedThrough : lastEventId;
+                if (lastEventId != null && lastEventId < dispatchedThrough) {
+                    replay(subscriber, lastEventId);
+                }
+                subscribers.add(subscriber);
+                subscriber.schedule();
+            } catch (RuntimeException ex) {
+                logger.warn("Change stream: could not open a subscription: {}", ex.getMessage());
+                subscriber.emitter.completeWithError(ex);
+            }
+        });
+        return subscriber.emitter;
+    }
+
+    // Tests substitute an emitter that records what is sent
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void replay(Subscriber subscriber, long since) {
+        if (changeFeedService.isExpired(since)) {
+            subscriber.overflow();
+            return;
+        }
+        // One entry more than fits, so a backlog too long for the buffer ends in a resync
+        List<ChangeDTO> backlog = changeLogRepository.findAfter(since, bufferSize + 1);
+        for (ChangeDTO change : backlog) {
+            if (change.getSeq() <= dispatchedThrough) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        // Coalesces bursts: one read covers every commit made before it runs
+        if (dispatchPending.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        dispatchPending.set(false);
+        try {
+            List<ChangeDTO> batch;
+            do {
+                batch = changeLogRepository.findAfter(dispatchedThrough, READ_BATCH);
+                for (ChangeDTO change : batch) {
+                    subscribers.forEach(subscriber -> subscriber.offer(change));
+                    dispatchedThrough = change.getSeq();
+                }
+            } while (batch.size() == READ_BATCH);
+            subscribers.forEach(Subscriber::schedule);
+        } catch (RuntimeException ex) {
+            // The next commit retries from the same position
+            logger.warn("Change stream: could not read the change log: {}", ex.getMessage());
+        }
+    }
+
+    // Comment lines keep idle connections from being closed by proxies and reveal clients that went away
+    @Scheduled(fixedDelayString = "${movies.changes.stream.heartbeat:PT30S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        });
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Queue<ChangeDTO> buffer = new ConcurrentLinkedQueue<>();
+        final AtomicInteger buffered = new AtomicInteger();
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile boolean heartbeatDue;
+        // Sequence number of the last change the client was sent (or had before subscribing)
+        volatile long lastSent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Dispatcher thread only
+        void offer(ChangeDTO change) {
+            if (overflowed) {
+                return;
+            }
+            if (buffered.incrementAndGet() > bufferSize) {
+                overflow();
+                return;
+            }
+            buffer.add(change);
+        }
+
+        // The sender drops the buffer and emits a resync event from the last change the client did receive
+        void overflow() {
+            overflowed = true;
+            resyncs.increment();
+        }
+
+        void schedule() {
+            if ((!buffer.isEmpty() || overflowed || heartbeatDue) && sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::flush);
+                } catch (RejectedExecutionException ex) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        // Sender thread; at most one per subscriber at a time
+        private void flush() {
+            try {
+                ChangeDTO change;
+                while (!overflowed && (change = buffer.poll()) != null) {
+                    buffered.decrementAndGet();
+                    emitter.send(SseEmitter.event().id(Long.toString(change.getSeq())).name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                    lastSent = change.getSeq();
+                }
+                if (overflowed) {
+                    // Cleared before new changes are accepted again, so everything dropped is older than what follows
+                    buffer.clear();
+                    buffered.set(0);
+                    overflowed = false;
+                    emitter.send(SseEmitter.event().name("resync").data(Map.of("since", lastSent), MediaType.APPLICATION_JSON));
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            schedule();
+        }
+    }
+}
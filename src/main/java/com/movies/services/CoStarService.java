@@ -0,0 +1,111 @@
+package com.movies.services;
+
+import com.movies.DTOs.ActorConnectionDTO;
+import com.movies.DTOs.CoStarDTO;
+import com.movies.entities.Actor;
+import com.movies.entities.Movie;
+import com.movies.exceptions.InvalidQueryParameterException;
+import com.movies.graph.CoStarGraph;
+import com.movies.interfaces.ActorRepository;
+import com.movies.interfaces.MovieRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Co-star queries answered from the in-memory {@link CoStarGraph}; the database is only read to check the actors
+ * exist and to name the actors and movies in the result. The graph follows committed changes asynchronously, so
+ * a link changed a moment ago may not be reflected yet.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+@Transactional(readOnly = true)
+public class CoStarService {
+
+    public static final int MAX_HOPS = 3;
+    public static final int MAX_LIMIT = 1000;
+    public static final int MAX_CONNECTION_HOPS = 10;
+
+    private final CoStarGraph coStarGraph;
+    private final ActorService actorService;
+    private final ActorRepository actorRepository;
+    private final MovieRepository movieRepository;
+
+    public CoStarService(CoStarGraph coStarGraph, ActorService actorService,
+                         ActorRepository actorRepository, MovieRepository movieRepository) {
+        this.coStarGraph = coStarGraph;
+        this.actorService = actorService;
+        this.actorRepository = actorRepository;
+        this.movieRepository = movieRepository;
+    }
+
+    public List<CoStarDTO> getCoStars(Long actorId, int hops, int limit) {
+        if (hops < 1 || hops > MAX_HOPS) {
+            throw new InvalidQueryParameterException("'hops' must be between 1 and " + MAX_HOPS + ".");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidQueryParameterException("'limit' must be between 1 and " + MAX_LIMIT + ".");
+        }
+        actorService.ensureActorsExist(List.of(actorId));
+        Map<Integer, Integer> distances = coStarGraph.neighbourhood(toNode(actorId), hops, limit);
+        Map<Long, String> names = actorNames(distances.keySet());
+        List<CoStarDTO> coStars = new ArrayList<>(distances.size());
+        distances.forEach((id, distance) -> {
+            // Skips actors deleted since the graph last caught up
+            String name = names.get(id.longValue());
+            if (name != null) {
+                coStars.add(new CoStarDTO(id.longValue(), name, distance));
+            }
+        });
+        return coStars;
+    }
+
+    public ActorConnectionDTO getConnection(Long fromActorId, Long toActorId, int maxHops) {
+        if (maxHops < 1 || maxHops > MAX_CONNECTION_HOPS) {
+            throw new InvalidQueryParameterException("'maxHops' must be between 1 and " + MAX_CONNECTION_HOPS + ".");
+        }
+        actorService.ensureActorsExist(new LinkedHashSet<>(List.of(fromActorId, toActorId)));
+        int[] path = coStarGraph.shortestPath(toNode(fromActorId), toNode(toActorId), maxHops);
+        if (path == null) {
+            return new ActorConnectionDTO(fromActorId, toActorId, false, null, List.of());
+        }
+
+        Set<Integer> actorIds = new HashSet<>();
+        Set<Long> movieIds = new HashSet<>();
+        for (int i = 0; i < path.length; i++) {
+            if (i % 2 == 0) {
+                actorIds.add(path[i]);
+            } else {
+                movieIds.add((long) path[i]);
+            }
+        }
+        Map<Long, String> actorNames = actorNames(actorIds);
+        Map<Long, String> movieTitles = movieRepository.findAllById(movieIds).stream()
+                .collect(Collectors.toMap(Movie::getId, Movie::getTitle));
+        List<ActorConnectionDTO.Step> steps = new ArrayList<>(path.length);
+        for (int i = 0; i < path.length; i++) {
+            long id = path[i];
+            steps.add(i % 2 == 0
+                    ? new ActorConnectionDTO.Step("actor", id, actorNames.get(id))
+                    : new ActorConnectionDTO.Step("movie", id, movieTitles.get(id)));
+        }
+        return new ActorConnectionDTO(fromActorId, toActorId, true, path.length / 2, steps);
+    }
+
+    private Map<Long, String> actorNames(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> actorIds = ids.stream().map(Integer::longValue).toList();
+        return actorRepository.findAllById(actorIds).stream()
+                .collect(Collectors.toMap(Actor::getId, Actor::getName, (first, second) -> first));
+    }
+
+    // Ids past the int range are never in the graph
+    private static int toNode(Long id) {
+        return id > Integer.MAX_VALUE ? -1 : id.intValue();
+    }
+}
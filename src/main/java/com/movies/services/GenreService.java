@@ -1,44 +1,141 @@
 package com.movies.services;
 
 import com.movies.DTOs.GenreDTO;
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.concurrency.RetryOnConflict;
 import com.movies.entities.Genre;
 import com.movies.entities.Movie;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogChangeEvent.ChangeType;
 import com.movies.exceptions.DuplicateEntityException;
 import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
 import com.movies.interfaces.GenreRepository;
 import com.movies.interfaces.MovieRepository;
+import com.movies.repositories.CatalogStatsRepository;
+import com.movies.repositories.MovieAssociationRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
 import com.movies.utils.AssociationUtils;
+import com.movies.utils.EntityTags;
+import com.movies.utils.IdListUtils;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
 public class GenreService {
     private final GenreRepository genreRepository;
     private final MovieRepository movieRepository;
-
-    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository) {
+    private final MovieAssociationRepository movieAssociationRepository;
+    private final IdExistenceFilter idExistenceFilter;
+    private final CatalogStatsRepository catalogStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository,
+                        MovieAssociationRepository movieAssociationRepository, IdExistenceFilter idExistenceFilter,
+                        CatalogStatsRepository catalogStatsRepository, ApplicationEventPublisher eventPublisher) {
         this.genreRepository = genreRepository;
         this.movieRepository = movieRepository;
+        this.movieAssociationRepository = movieAssociationRepository;
+        this.idExistenceFilter = idExistenceFilter;
+        this.catalogStatsRepository = catalogStatsRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Page<Genre> getAllGenres(Pageable pageable) {
         return genreRepository.findAll(pageable);
     }
 
+    // Genres for an ?ids= list, resolved with one IN query and returned in request order
+    public MultiGetResponse<Genre> getGenresByIds(List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctIds(ids);
+        List<Long> candidates = idExistenceFilter.retainPossible(Genre.class, distinctIds);
+        List<Genre> found = candidates.isEmpty() ? List.of() : genreRepository.findAllById(candidates);
+        return IdListUtils.inRequestOrder(distinctIds, found, Genre::getId);
+    }
+
     public Genre getGenreById(Long id) {
+        idExistenceFilter.rejectUnknown(Genre.class, id);
         return genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
     }
 
+    // Throws ResourceNotFoundException for the first unknown id; ids the existence filter rules out need no query,
+    // the others are checked in one
+    public void ensureGenresExist(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        idExistenceFilter.rejectUnknown(Genre.class, ids);
+        Set<Long> existing = new HashSet<>(genreRepository.findExistingIds(ids));
+        for (Long id : ids) {
+            if (!existing.contains(id)) {
+                throw new ResourceNotFoundException("Genre not found with id " + id);
+            }
+        }
+    }
+
+    // Get-or-create by name, in input order without duplicates. When all genres exist this is one query;
+    // otherwise the missing ones are inserted with one JDBC batch and read back with one more query.
+    // Runs inside createMovieWithAssociations, whose retry re-runs the whole unit of work on a conflict
+    @Transactional
+    public List<Genre> getOrCreateGenres(Collection<GenreDTO> genreDTOs) {
+        Map<String, Genre> resolved = new LinkedHashMap<>();
+        for (GenreDTO genreDTO : genreDTOs) {
+            resolved.put(genreDTO.getName(), null);
+        }
+        if (resolved.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        genreRepository.findByNameIn(resolved.keySet()).forEach(genre -> resolved.replace(genre.getName(), genre));
+        List<String> missing = new ArrayList<>();
+        resolved.forEach((name, genre) -> {
+            if (genre == null) {
+                missing.add(name);
+            }
+        });
+        if (!missing.isEmpty()) {
+            int[] inserted = genreRepository.insertIgnoringExisting(missing);
+            Set<String> created = new HashSet<>();
+            // Only rows this batch inserted are new; the others were created meanwhile by another transaction
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] == 1) {
+                    created.add(missing.get(i));
+                }
+            }
+            genreRepository.findByNameIn(missing).forEach(genre -> {
+                resolved.replace(genre.getName(), genre);
+                if (created.contains(genre.getName())) {
+                    eventPublisher.publishEvent(CatalogChangeEvent.genre(genre.getId(), ChangeType.CREATED));
+                }
+            });
+        }
+        return new ArrayList<>(resolved.values());
+    }
+
+    // Version-only lookup for conditional requests; never hydrates the genre
+    public String getGenreETag(Long id) {
+        idExistenceFilter.rejectUnknown(Genre.class, id);
+        return genreRepository.findVersionById(id)
+                .map(EntityTags::forVersion)
+                .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
+    }
+
     public Page<Genre> getGenresByName(String name, Pageable pageable) {
         return genreRepository.findByNameContainingIgnoreCase(name, pageable);
     }
 
+    @Transactional
+    @RetryOnConflict
     public Genre createGenre(GenreDTO genreDTO) {
         Optional<Genre> existingGenre = genreRepository.findByName(genreDTO.getName());
         if (existingGenre.isPresent()) {
@@ -60,11 +157,28 @@ public class GenreService {
             movies.forEach(movie -> movie.getGenres().add(newGenre));
         }
 
-        return genreRepository.save(newGenre);
+        Genre savedGenre = genreRepository.save(newGenre);
+        if (genreDTO.getMovieIds() != null && !genreDTO.getMovieIds().isEmpty()) {
+            genreRepository.flush();
+            catalogStatsRepository.recount(Association.GENRES, savedGenre.getId());
+            publishLinksChanged(savedGenre.getMovies().stream().map(Movie::getId).toList());
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.genre(savedGenre.getId(), ChangeType.CREATED));
+        return savedGenre;
     }
 
 
-    public Genre partialUpdateGenre(Long id, GenreDTO genreDTO) {
+    // Movies whose genres were changed from the genre's side
+    private void publishLinksChanged(Collection<Long> movieIds) {
+        movieIds.forEach(movieId -> eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED)));
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public Genre partialUpdateGenre(Long id, GenreDTO genreDTO, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getGenreETag(id));
+        }
         Genre genre = getGenreById(id); // Retrieve existing genre for updates
 
         // Update only the provided fields
@@ -72,9 +186,12 @@ public class GenreService {
             genre.setName(genreDTO.getName());
         }
 
+        Set<Long> relinkedMovieIds = new HashSet<>();
         if (genreDTO.getMovieIds() != null && !genreDTO.getMovieIds().isEmpty()) {
             // Fetch movies based on provided IDs
             Set<Movie> movies = AssociationUtils.getAssociatedMovies(genreDTO.getMovieIds(), movieRepository);
+            genre.getMovies().forEach(movie -> relinkedMovieIds.add(movie.getId()));
+            movies.forEach(movie -> relinkedMovieIds.add(movie.getId()));
 
             // Synchronize associations: clear existing and add new
             genre.getMovies().forEach(movie -> movie.getGenres().remove(genre));
@@ -83,26 +200,41 @@ public class GenreService {
         }
 
         // Save the updated genre
-        return genreRepository.save(genre);
+        Genre savedGenre = genreRepository.save(genre);
+        if (genreDTO.getMovieIds() != null && !genreDTO.getMovieIds().isEmpty()) {
+            genreRepository.flush();
+            catalogStatsRepository.recount(Association.GENRES, id);  // its movie list was replaced
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.genre(id, ChangeType.UPDATED));
+        publishLinksChanged(relinkedMovieIds);
+        return savedGenre;
     }
 
 
-    public String deleteGenre(Long id, boolean forceDelete) {
+    @Transactional
+    @RetryOnConflict
+    public String deleteGenre(Long id, boolean forceDelete, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getGenreETag(id));
+        }
         Genre genre = getGenreById(id);
-        // Check if the genre is associated with any movies
-        if (!genre.getMovies().isEmpty()) {
+        // Check if the genre is associated with any movies, without loading them
+        int movieCount = movieAssociationRepository.countLinksTo(Association.GENRES, id);
+        if (movieCount > 0) {
             if (!forceDelete) {
-                return "Unable to delete genre '" + genre.getName() + "' as it is associated with " + genre.getMovies().size() + " movies.";
+                return "Unable to delete genre '" + genre.getName() + "' as it is associated with " + movieCount + " movies.";
             } else {
-                // Remove associations with all movies
-                genre.getMovies().forEach(movie -> movie.getGenres().remove(genre));
-                genre.getMovies().clear();
-                genreRepository.save(genre); // Save updated genre with cleared associations
+                // Remove associations with all movies in one statement
+                movieAssociationRepository.touchMoviesLinkedTo(Association.GENRES, id);
+                publishLinksChanged(movieAssociationRepository.findMovieIdsLinkedTo(Association.GENRES, id));
+                movieAssociationRepository.deleteLinksTo(Association.GENRES, id);
             }
         }
 
         // Proceed to delete the genre
-        genreRepository.deleteById(id);
+        catalogStatsRepository.remove(Association.GENRES, id);
+        genreRepository.delete(genre);
+        eventPublisher.publishEvent(CatalogChangeEvent.genre(id, ChangeType.DELETED));
         return "Genre '" + genre.getName() + "' deleted successfully.";
     }
 
@@ -1,70 +1,128 @@
 package com.movies.services;
 
 
-import com.movies.DTOs.ActorDTO;
-import com.movies.DTOs.GenreDTO;
+import com.movies.DTOs.AssociationUpdateResult;
 import com.movies.DTOs.MovieDTO;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.concurrency.RetryOnConflict;
 import com.movies.entities.Actor;
 import com.movies.entities.Genre;
 import com.movies.entities.Movie;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogChangeEvent.ChangeType;
 import com.movies.exceptions.AssociationAlreadyExistsException;
 import com.movies.exceptions.AssociationNotFoundException;
 import com.movies.exceptions.DuplicateEntityException;
 import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
 import com.movies.interfaces.ActorRepository;
 import com.movies.interfaces.GenreRepository;
 import com.movies.interfaces.MovieRepository;
+import com.movies.repositories.CatalogStatsRepository;
+import com.movies.repositories.MovieAssociationRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
+import com.movies.specifications.MovieSpecifications;
+import com.movies.utils.EntityTags;
+import com.movies.utils.IdListUtils;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
 public class MovieService {
     private final MovieRepository movieRepository;
     private final ActorRepository actorRepository;
     private final GenreRepository genreRepository;
     private final ActorService actorService;
     private final GenreService genreService;
-
+    private final MovieAssociationRepository movieAssociationRepository;
+    private final IdExistenceFilter idExistenceFilter;
+    private final CatalogStatsRepository catalogStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public MovieService(MovieRepository movieRepository,
                         ActorRepository actorRepository,
                         GenreRepository genreRepository,
                         ActorService actorService,
-                        GenreService genreService) {
+                        GenreService genreService,
+                        MovieAssociationRepository movieAssociationRepository,
+                        IdExistenceFilter idExistenceFilter,
+                        CatalogStatsRepository catalogStatsRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.movieRepository = movieRepository;
         this.actorRepository = actorRepository;
         this.genreRepository = genreRepository;
         this.actorService = actorService;
         this.genreService = genreService;
+        this.movieAssociationRepository = movieAssociationRepository;
+        this.idExistenceFilter = idExistenceFilter;
+        this.catalogStatsRepository = catalogStatsRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Any combination of filters is applied in one query; absent filters are ignored
+    public Page<MovieMinimalDTO> getMovies(List<Long> actorIds, List<Long> genreIds, Integer year,
+                                           Integer fromYear, Integer toYear,
+                                           Integer minDuration, Integer maxDuration,
+                                           Pageable pageable) {
+        // Unknown actor or genre ids are reported as 404, as for the single-id filters before
+        actorService.ensureActorsExist(actorIds);
+        genreService.ensureGenresExist(genreIds);
+
+        Specification<Movie> spec = Specification.where(MovieSpecifications.hasAllActors(actorIds))
+                .and(MovieSpecifications.hasAllGenres(genreIds))
+                .and(MovieSpecifications.releasedIn(year))
+                .and(MovieSpecifications.releasedBetween(fromYear, toYear))
+                .and(MovieSpecifications.durationBetween(minDuration, maxDuration));
+        return movieRepository.findMinimal(spec, pageable);
     }
 
-    public Page<Movie> getAllMovies(Pageable pageable) {
-        return movieRepository.findAll(pageable);
+    // Movies for an ?ids= list with actors and genres loaded, in request order
+    @Transactional(readOnly = true)
+    public MultiGetResponse<Movie> getMoviesByIds(List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctIds(ids);
+        List<Long> candidates = idExistenceFilter.retainPossible(Movie.class, distinctIds);
+        List<Movie> movies = candidates.isEmpty() ? List.of() : movieRepository.findWithActorsByIdIn(candidates);
+        if (!movies.isEmpty()) {
+            movieRepository.findWithGenresByIdIn(candidates);
+        }
+        return IdListUtils.inRequestOrder(distinctIds, movies, Movie::getId);
     }
 
     public Movie getMovieById(Long id) {
+        idExistenceFilter.rejectUnknown(Movie.class, id);
         return movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id " + id));
     }
 
-    public Page<Movie> getMoviesByTitle(String title, Pageable pageable) {
-        return movieRepository.findByTitleContainingIgnoreCase(title, pageable);
+    // Version-only lookup for conditional requests; never hydrates the movie
+    public String getMovieETag(Long id) {
+        idExistenceFilter.rejectUnknown(Movie.class, id);
+        return movieRepository.findVersionSummaryById(id)
+                .map(v -> EntityTags.forMovie(v.getVersion(), v.getActorVersions(), v.getGenreVersions()))
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id " + id));
     }
 
-    public Page<Movie> getMoviesByYear(int releaseYear, Pageable pageable) {
-        return movieRepository.findByReleaseYear(releaseYear, pageable);
+    public Page<Movie> getMoviesByTitle(String title, Pageable pageable) {
+        return movieRepository.findByTitleContainingIgnoreCase(title, pageable);
     }
 
+    @Transactional
+    @RetryOnConflict
     public Movie createMovieWithAssociations(MovieDTO dto) {
         // Check if a similar movie already exists
         Optional<Movie> existingMovie = movieRepository.findByTitleAndReleaseYearAndDuration(
@@ -91,16 +149,9 @@ public class MovieService {
             }
         }
 
-        // Add new actors specified by ActorDTO
+        // Add actors specified by ActorDTO, creating those that don't exist yet
         if (dto.getActors() != null) {
-            for (ActorDTO actorDTO : dto.getActors()) {
-                try {
-                    actors.add(actorService.createActor(actorDTO));
-                } catch (DuplicateEntityException e) {
-                    Long existingActorId = extractEntityIdFromMessage(e.getMessage());
-                    actors.add(actorService.getActorById(existingActorId));
-                }
-            }
+            actors.addAll(actorService.getOrCreateActors(dto.getActors()));
         }
         movie.setActors(actors);
 
@@ -113,56 +164,49 @@ public class MovieService {
             }
         }
 
-        // Add new genres specified by GenreDTO
+        // Add genres specified by GenreDTO, creating those that don't exist yet
         if (dto.getGenres() != null) {
-            for (GenreDTO genreDTO : dto.getGenres()) {
-                try {
-                    genres.add(genreService.createGenre(genreDTO));
-                } catch (DuplicateEntityException e) {
-                    Long existingGenreId = extractEntityIdFromMessage(e.getMessage());
-                    genres.add(genreService.getGenreById(existingGenreId));
-                }
-            }
+            genres.addAll(genreService.getOrCreateGenres(dto.getGenres()));
         }
         movie.setGenres(genres);
 
-        return movieRepository.save(movie);
+        Movie savedMovie = movieRepository.save(movie);
+        movieRepository.flush();  // the statistics are computed from the stored links
+        catalogStatsRepository.applyMovie(savedMovie.getId(), 1);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(savedMovie.getId(), ChangeType.CREATED));
+        return savedMovie;
     }
 
-    private Long extractEntityIdFromMessage(String message) { // helper method to extract ids for create and update methods - boy im tired and this is so unnecessary lolol
-        Pattern pattern = Pattern.compile("with id (\\d+)");
-        Matcher matcher = pattern.matcher(message);
-        if (matcher.find()) {
-            return Long.parseLong(matcher.group(1));
+    @Transactional
+    @RetryOnConflict
+    public String deleteMovie(Long id, boolean forceDelete, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getMovieETag(id));
         }
-        throw new IllegalArgumentException("Entity id not found in message: " + message);
-    }
-
-    public String deleteMovie(Long id, boolean forceDelete) {
         Movie movie = getMovieById(id);
-        // Check if the movie has associated actors
-        if (!movie.getActors().isEmpty()) {
-            if (!forceDelete) {
-                // Return a message instead of throwing an exception
-                return "Unable to delete movie '" + movie.getTitle() + "' as it is associated with " + movie.getActors().size() + " actors.";
-            } else {
-                // Remove associations with all actors
-                for (Actor actor : movie.getActors()) {
-                    actor.getMovies().remove(movie);
-                    actorRepository.save(actor); // Save updated actor without the movie association
-                }
-                movie.getActors().clear(); // Clear the actors set in the movie before deletion
-                movieRepository.save(movie); // Save updated movie with cleared associations
-            }
+        // Check if the movie has associated actors, without loading them
+        int actorCount = movieAssociationRepository.countLinksOfMovie(Association.ACTORS, id);
+        if (actorCount > 0 && !forceDelete) {
+            // Return a message instead of throwing an exception
+            return "Unable to delete movie '" + movie.getTitle() + "' as it is associated with " + actorCount + " actors.";
         }
 
-        // Proceed to delete the movie
-        movieRepository.deleteById(id);
+        // Proceed to delete the movie. Movie owns both join tables, so Hibernate drops its movie_actor and
+        // movie_genre rows with one DELETE per table, without loading the collections
+        catalogStatsRepository.applyMovie(id, -1);
+        movieRepository.delete(movie);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(id, ChangeType.DELETED));
         return "Movie '" + movie.getTitle() + "' has been deleted successfully.";
     }
 
-    public Movie updateMovieWithAssociations(Long movieId, MovieDTO dto) {
+    @Transactional
+    @RetryOnConflict
+    public Movie updateMovieWithAssociations(Long movieId, MovieDTO dto, String ifMatch) {
+        if (ifMatch != null) {
+            EntityTags.requireMatch(ifMatch, getMovieETag(movieId));
+        }
         Movie movie = getMovieById(movieId);  // Retrieve existing movie, throws 404 if not found
+        catalogStatsRepository.applyMovie(movieId, -1);  // taken out here and added back as stored after the update
 
         // Update title, year, and duration if provided
         if (dto.getTitle() != null) {
@@ -191,52 +235,93 @@ public class MovieService {
             movie.setGenres(genres);  // Replace existing genres with the new set
         }
 
-        return movieRepository.save(movie);  // Save and return the updated movie
+        Movie savedMovie = movieRepository.save(movie);  // Save and return the updated movie
+        movieRepository.flush();
+        catalogStatsRepository.applyMovie(movieId, 1);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.UPDATED));
+        return savedMovie;
     }
 
-    public Page<Movie> getMoviesByActorId(Long actorId, Pageable pageable) {
-        // Ensure the actor exists by calling getActorById; throws ResourceNotFoundException if not found
-        actorService.getActorById(actorId);
-
-        // Return a paginated list of movies for the actor
-        return movieRepository.findByActorsId(actorId, pageable);
-    }
+    // Single-link changes touch one join row; neither side's collection is loaded. Adding a link answers with the
+    // movie, read again after the change
 
+    @Transactional
+    @RetryOnConflict
     public Movie addActorToMovie(Long movieId, Long actorId) {
-        Movie movie = getMovieById(movieId);  // Fetch movie and handle potential 404 with ResourceNotFoundException
-        Actor actor = actorService.getActorById(actorId);  // Fetch actor and handle potential 404
-
-        // Check if the association already exists to prevent duplicates
-        if (movie.getActors().contains(actor)) {
+        long version = ensureLinkEndsExist(movieId, Association.ACTORS, actorId);
+        if (movieAssociationRepository.linkExists(Association.ACTORS, movieId, actorId)
+                || !movieAssociationRepository.insertLink(Association.ACTORS, movieId, actorId)) {
             throw new AssociationAlreadyExistsException("Actor is already associated with this movie.");
         }
-
-        // Add the actor to the movie and vice versa for bidirectional consistency
-        movie.getActors().add(actor);
-        actor.getMovies().add(movie);
-
-        // Save both entities to ensure the bidirectional relationship is updated
-        actorRepository.save(actor);  // Save the actor with the new movie association
-        return movieRepository.save(movie);  // Save the movie with the updated actor association
+        catalogStatsRepository.applyLink(Association.ACTORS, movieId, actorId, 1);
+        touchMovie(movieId, version);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED));
+        return getMovieById(movieId);
     }
 
+    @Transactional
+    @RetryOnConflict
     public void removeActorFromMovie(Long movieId, Long actorId) {
-        // Use helper methods to retrieve the entities, throwing ResourceNotFoundException if not found
-        Movie movie = getMovieById(movieId);
-        Actor actor = actorService.getActorById(actorId);
-
-        // Check if the actor is actually associated with the movie before attempting to remove
-        if (!movie.getActors().contains(actor)) {
+        long version = ensureLinkEndsExist(movieId, Association.ACTORS, actorId);
+        if (!movieAssociationRepository.deleteLink(Association.ACTORS, movieId, actorId)) {
             throw new AssociationNotFoundException("Actor with ID " + actorId + " is not associated with Movie ID " + movieId);
         }
+        catalogStatsRepository.applyLink(Association.ACTORS, movieId, actorId, -1);
+        touchMovie(movieId, version);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED));
+    }
 
-        // Remove the association on both sides
-        movie.getActors().remove(actor);
-        actor.getMovies().remove(movie);
+    // Bulk association changes: the ids are checked in one query and the join rows are written directly,
+    // so neither the movie's nor the actors'/genres' collections are loaded
+
+    @Transactional
+    @RetryOnConflict
+    public AssociationUpdateResult replaceAssociations(Long movieId, Association association, List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctBodyIds(ids);
+        long version = prepareAssociationChange(movieId, association, distinctIds);
+        int removed = movieAssociationRepository.deleteLinksExcept(association, movieId, distinctIds);
+        int added = movieAssociationRepository.insertLinks(association, movieId, distinctIds);
+        return finishAssociationChange(movieId, association, version, added, removed);
+    }
 
-        // Save both entities to persist the change
-        movieRepository.save(movie);
-        actorRepository.save(actor);
+    @Transactional
+    @RetryOnConflict
+    public AssociationUpdateResult addAssociations(Long movieId, Association association, List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctBodyIds(ids);
+        long version = prepareAssociationChange(movieId, association, distinctIds);
+        int added = movieAssociationRepository.insertLinks(association, movieId, distinctIds);
+        return finishAssociationChange(movieId, association, version, added, 0);
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public AssociationUpdateResult removeAssociations(Long movieId, Association association, List<Long> ids) {
+        List<Long> distinctIds = IdListUtils.distinctBodyIds(ids);
+        long version = prepareAssociationChange(movieId, association, distinctIds);
+        int removed = movieAssociationRepository.deleteLinks(association, movieId, distinctIds);
+        return finishAssociationChange(movieId, association, version, 0, removed);
+    }
+
+    // Returns the movie's version. The movie's contribution to the statistics of its current links is taken out
+    // here and added back for its new links in finishAssociationChange
+    private long prepareAssociationChange(Long movieId, Association association, List<Long> distinctIds) {
+        long version = getMovieVersion(movieId);
+        if (association == Association.ACTORS) {
+            actorService.ensureActorsExist(distinctIds);
+        } else {
+            genreService.ensureGenresExist(distinctIds);
+        }
+        catalogStatsRepository.applyMovieLinks(association, movieId, -1);
+        return version;
+    }
+
+    private AssociationUpdateResult finishAssociationChange(Long movieId, Association association, long version, int added, int removed) {
+        catalogStatsRepository.applyMovieLinks(association, movieId, 1);
+        if (added > 0 || removed > 0) {
+            touchMovie(movieId, version);  // keeps the movie's ETag in step with its links
+            eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED));
+        }
+        return new AssociationUpdateResult(movieId, added, removed);
     }
 
     public Set<Actor> getActorsInMovie(Long movieId) {
@@ -249,45 +334,56 @@ public class MovieService {
         return movie.getGenres();
     }
 
-    public Page<Movie> getMoviesByGenre(Long genreId, Pageable pageable) {
-        // Ensure the genre exists by calling getGenreById; throws ResourceNotFoundException if not found
-        genreService.getGenreById(genreId);
-
-        // Fetch movies associated with the genre in a paginated format
-        return movieRepository.findByGenresId(genreId, pageable);
-    }
-
+    @Transactional
+    @RetryOnConflict
     public Movie addGenreToMovie(Long movieId, Long genreId) {
-        Movie movie = getMovieById(movieId); // Throws ResourceNotFoundException if not found
-        Genre genre = genreService.getGenreById(genreId); // Also throws ResourceNotFoundException if not found
-
-        // Check if the genre is already associated with the movie
-        if (movie.getGenres().contains(genre)) {
+        long version = ensureLinkEndsExist(movieId, Association.GENRES, genreId);
+        if (movieAssociationRepository.linkExists(Association.GENRES, movieId, genreId)
+                || !movieAssociationRepository.insertLink(Association.GENRES, movieId, genreId)) {
             throw new AssociationAlreadyExistsException("Genre with id " + genreId + " is already associated with movie id " + movieId);
         }
-
-        movie.getGenres().add(genre);
-        genre.getMovies().add(movie);
-
-        genreRepository.save(genre); // Ensure the genre side is updated
-        return movieRepository.save(movie); // Save the movie with the updated list of genres
+        catalogStatsRepository.applyLink(Association.GENRES, movieId, genreId, 1);
+        touchMovie(movieId, version);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED));
+        return getMovieById(movieId);
     }
 
+    @Transactional
+    @RetryOnConflict
     public void removeGenreFromMovie(Long movieId, Long genreId) {
-        Movie movie = getMovieById(movieId);  // Reuse method for 404 handling
-        Genre genre = genreService.getGenreById(genreId);  // Reuse method for 404 handling
-
-        // Check if the association exists before attempting removal
-        if (!movie.getGenres().contains(genre)) {
+        long version = ensureLinkEndsExist(movieId, Association.GENRES, genreId);
+        if (!movieAssociationRepository.deleteLink(Association.GENRES, movieId, genreId)) {
             throw new AssociationNotFoundException("Genre with id " + genreId + " is not associated with Movie id " + movieId);
         }
+        catalogStatsRepository.applyLink(Association.GENRES, movieId, genreId, -1);
+        touchMovie(movieId, version);
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(movieId, ChangeType.LINKS_CHANGED));
+    }
 
-        // Remove the association on both sides
-        movie.getGenres().remove(genre);
-        genre.getMovies().remove(movie);
+    // Primary key lookups only, so the 404s stay as before. Returns the movie's version
+    private long ensureLinkEndsExist(Long movieId, Association association, Long otherId) {
+        long version = getMovieVersion(movieId);
+        idExistenceFilter.rejectUnknown(association == Association.ACTORS ? Actor.class : Genre.class, otherId);
+        if (association == Association.ACTORS && !actorRepository.existsById(otherId)) {
+            throw new ResourceNotFoundException("Actor not found with id " + otherId);
+        }
+        if (association == Association.GENRES && !genreRepository.existsById(otherId)) {
+            throw new ResourceNotFoundException("Genre not found with id " + otherId);
+        }
+        return version;
+    }
 
-        // Save both entities to persist the change
-        movieRepository.save(movie);
-        genreRepository.save(genre);
+    private long getMovieVersion(Long movieId) {
+        idExistenceFilter.rejectUnknown(Movie.class, movieId);
+        return movieRepository.findVersionById(movieId)
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id " + movieId));
+    }
+
+    // Link changes bypass Hibernate, so the movie's version is checked and bumped here. Losing the race
+    // to another writer is reported like a Hibernate @Version conflict, which @RetryOnConflict retries
+    private void touchMovie(Long movieId, long expectedVersion) {
+        if (movieAssociationRepository.touchMovie(movieId, expectedVersion) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Movie.class, movieId);
+        }
     }
 }
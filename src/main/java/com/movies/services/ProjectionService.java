@@ -0,0 +1,182 @@
+package com.movies.services;
+
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
+import com.movies.utils.FieldSelection;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Sparse fieldsets: reads only the requested columns of movies, actors and genres into maps.
+ * Associations (a movie's actors and genres) are fetched with one extra query each, and only when requested.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+@Transactional(readOnly = true)
+public class ProjectionService {
+
+    public static final List<String> MOVIE_FIELDS = List.of("id", "title", "releaseYear", "duration", "actors", "genres");
+    public static final List<String> ACTOR_FIELDS = List.of("id", "name");
+    public static final List<String> GENRE_FIELDS = List.of("id", "name");
+
+    private static final Set<String> MOVIE_ASSOCIATIONS = Set.of("actors", "genres");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final IdExistenceFilter idExistenceFilter;
+
+    public ProjectionService(IdExistenceFilter idExistenceFilter) {
+        this.idExistenceFilter = idExistenceFilter;
+    }
+
+    public Map<String, Object> getMovie(Long id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, MOVIE_FIELDS);
+        return findOne(Movie.class, id, selection, "Movie");
+    }
+
+    public Page<Map<String, Object>> getMoviesByTitle(String title, String fields, Pageable pageable) {
+        FieldSelection selection = FieldSelection.parse(fields, MOVIE_FIELDS);
+        return findPage(Movie.class, containsIgnoreCase("title", title), selection, pageable);
+    }
+
+    public Map<String, Object> getActor(Long id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ACTOR_FIELDS);
+        return findOne(Actor.class, id, selection, "Actor");
+    }
+
+    public Page<Map<String, Object>> getActors(String name, String fields, Pageable pageable) {
+        FieldSelection selection = FieldSelection.parse(fields, ACTOR_FIELDS);
+        return findPage(Actor.class, containsIgnoreCase("name", name), selection, pageable);
+    }
+
+    public Map<String, Object> getGenre(Long id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, GENRE_FIELDS);
+        return findOne(Genre.class, id, selection, "Genre");
+    }
+
+    public Page<Map<String, Object>> getGenres(String name, String fields, Pageable pageable) {
+        FieldSelection selection = FieldSelection.parse(fields, GENRE_FIELDS);
+        return findPage(Genre.class, containsIgnoreCase("name", name), selection, pageable);
+    }
+
+    private <T> Map<String, Object> findOne(Class<T> type, Long id, FieldSelection selection, String entityName) {
+        idExistenceFilter.rejectUnknown(type, id);
+        Specification<T> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        List<Map<String, Object>> rows = findRows(type, byId, selection, null);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(entityName + " not found with id " + id);
+        }
+        return rows.get(0);
+    }
+
+    private <T> Page<Map<String, Object>> findPage(Class<T> type, Specification<T> spec, FieldSelection selection, Pageable pageable) {
+        List<Map<String, Object>> rows = findRows(type, spec, selection, pageable);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<T> root = countQuery.from(type);
+        countQuery.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, countQuery, cb);
+        if (predicate != null) {
+            countQuery.where(predicate);
+        }
+        return new PageImpl<>(rows, pageable, entityManager.createQuery(countQuery).getSingleResult());
+    }
+
+    private <T> List<Map<String, Object>> findRows(Class<T> type, Specification<T> spec, FieldSelection selection, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        // The id is always read: associations are attached by it
+        List<Selection<?>> columns = new ArrayList<>();
+        columns.add(root.get("id").alias("id"));
+        for (String field : selection.getFields()) {
+            if (!field.equals("id") && !MOVIE_ASSOCIATIONS.contains(field)) {
+                columns.add(root.get(field).alias(field));
+            }
+        }
+        query.multiselect(columns);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable != null && pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        Map<Long, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selection.getFields()) {
+                if (MOVIE_ASSOCIATIONS.contains(field)) {
+                    row.put(field, new ArrayList<Map<String, Object>>());
+                } else {
+                    row.put(field, tuple.get(field));
+                }
+            }
+            rows.put(tuple.get("id", Long.class), row);
+        }
+
+        if (type == Movie.class && !rows.isEmpty()) {
+            for (String association : MOVIE_ASSOCIATIONS) {
+                if (selection.includes(association)) {
+                    attachAssociation(association, rows);
+                }
+            }
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    // Actors and genres both expose id and name, so one query shape serves both associations
+    @SuppressWarnings("unchecked")
+    private void attachAssociation(String association, Map<Long, Map<String, Object>> rows) {
+        List<Object[]> links = entityManager.createQuery(
+                        "select m.id, a.id, a.name from Movie m join m." + association + " a where m.id in :ids order by a.id",
+                        Object[].class)
+                .setParameter("ids", rows.keySet())
+                .getResultList();
+        for (Object[] link : links) {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            nested.put("id", link[1]);
+            nested.put("name", link[2]);
+            ((List<Map<String, Object>>) rows.get((Long) link[0]).get(association)).add(nested);
+        }
+    }
+
+    // Same semantics as the derived ...ContainingIgnoreCase finders; null or empty matches everything
+    private static <T> Specification<T> containsIgnoreCase(String attribute, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + value.toUpperCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.upper(root.get(attribute)), pattern, '\\');
+    }
+}
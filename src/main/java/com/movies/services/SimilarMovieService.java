@@ -0,0 +1,71 @@
+package com.movies.services;
+
+import com.movies.DTOs.SimilarMovieDTO;
+import com.movies.entities.Movie;
+import com.movies.exceptions.InvalidQueryParameterException;
+import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
+import com.movies.interfaces.MovieRepository;
+import com.movies.similarity.MinHashIndex;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Similar movies" from the {@link MinHashIndex}: candidates are found without scanning the catalog, re-ranked
+ * exactly, and named with one query that also checks the movie itself exists. The index follows committed
+ * changes asynchronously.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+@Transactional(readOnly = true)
+public class SimilarMovieService {
+
+    public static final int MAX_LIMIT = 100;
+    // Candidates re-ranked per result requested
+    private static final int CANDIDATES_PER_RESULT = 5;
+
+    private final MinHashIndex minHashIndex;
+    private final MovieRepository movieRepository;
+    private final IdExistenceFilter idExistenceFilter;
+
+    public SimilarMovieService(MinHashIndex minHashIndex, MovieRepository movieRepository, IdExistenceFilter idExistenceFilter) {
+        this.minHashIndex = minHashIndex;
+        this.movieRepository = movieRepository;
+        this.idExistenceFilter = idExistenceFilter;
+    }
+
+    public List<SimilarMovieDTO> getSimilarMovies(Long movieId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidQueryParameterException("'limit' must be between 1 and " + MAX_LIMIT + ".");
+        }
+        idExistenceFilter.rejectUnknown(Movie.class, movieId);
+        List<MinHashIndex.Match> matches = movieId > Integer.MAX_VALUE
+                ? List.of()
+                : minHashIndex.similarTo(movieId.intValue(), limit, limit * CANDIDATES_PER_RESULT);
+
+        List<Long> ids = new ArrayList<>(matches.size() + 1);
+        ids.add(movieId);
+        matches.forEach(match -> ids.add((long) match.movieId()));
+        Map<Long, Movie> movies = movieRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        if (!movies.containsKey(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with id " + movieId);
+        }
+
+        List<SimilarMovieDTO> similar = new ArrayList<>(matches.size());
+        for (MinHashIndex.Match match : matches) {
+            // Skips movies deleted since the index last caught up
+            Movie movie = movies.get((long) match.movieId());
+            if (movie != null) {
+                similar.add(new SimilarMovieDTO(movie.getId(), movie.getTitle(), movie.getReleaseYear(),
+                        match.similarity(), match.sharedActors(), match.sharedGenres()));
+            }
+        }
+        return similar;
+    }
+}
@@ -0,0 +1,94 @@
+package com.movies.services;
+
+import com.movies.DTOs.EntityStats;
+import com.movies.DTOs.YearStats;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.existence.IdExistenceFilter;
+import com.movies.repositories.CatalogStatsRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Movie counts and average durations per release year, genre and actor, read from the summary tables that
+ * the service mutations keep current. Every read costs one query proportional to its result.
+ */
+@Service
+@Timed(value = "movies.service", description = "Time spent in service methods")
+@Transactional(readOnly = true)
+public class StatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsService.class);
+
+    private final CatalogStatsRepository catalogStatsRepository;
+    private final IdExistenceFilter idExistenceFilter;
+    private final boolean rebuildOnStartup;
+
+    public StatsService(CatalogStatsRepository catalogStatsRepository, IdExistenceFilter idExistenceFilter,
+                        @Value("${movies.stats.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.catalogStatsRepository = catalogStatsRepository;
+        this.idExistenceFilter = idExistenceFilter;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public List<YearStats> getYearStats() {
+        return catalogStatsRepository.findYears();
+    }
+
+    public YearStats getYearStats(int releaseYear) {
+        return catalogStatsRepository.findYear(releaseYear);
+    }
+
+    public List<EntityStats> getGenreStats() {
+        return catalogStatsRepository.findAll(Association.GENRES);
+    }
+
+    public EntityStats getGenreStats(Long genreId) {
+        idExistenceFilter.rejectUnknown(Genre.class, genreId);
+        return catalogStatsRepository.findOne(Association.GENRES, genreId)
+                .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + genreId));
+    }
+
+    // A slice rather than a page: counting every actor would make each page cost O(actors)
+    public Slice<EntityStats> getActorStats(Pageable pageable) {
+        List<EntityStats> rows = catalogStatsRepository.findPage(Association.ACTORS, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    public EntityStats getActorStats(Long actorId) {
+        idExistenceFilter.rejectUnknown(Actor.class, actorId);
+        return catalogStatsRepository.findOne(Association.ACTORS, actorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id " + actorId));
+    }
+
+    // Recovery after writes that bypassed the services, e.g. manual edits of the database file
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        catalogStatsRepository.rebuild();
+        logger.info("Catalog statistics rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    // Also fills the tables the first time they are created
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.movies.similarity;
+
+import com.movies.events.CatalogChangeEvent;
+import com.movies.events.CatalogIndexWorker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * MinHash signatures of every movie's cast and genres, banded into an LSH bucket index: two movies whose feature sets
+ * have Jaccard similarity s share at least one of the BANDS buckets with probability 1 - (1 - s^ROWS)^BANDS. Overlaps
+ * between movies are small, so the bands are short: about 0.28 at s = 0.1, 0.73 at s = 0.2 and 0.95 at s = 0.3.
+ * Candidates come only from the query movie's buckets and are re-ranked by their exact Jaccard similarity, computed
+ * from the feature sets kept alongside. Committed changes are applied by a single background thread that re-reads
+ * the movie's links; a rebuild fills new maps and swaps them in, so queries keep using the old ones until it is done.
+ */
+@Component
+public class MinHashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinHashIndex.class);
+
+    static final int BANDS = 32;
+    static final int ROWS = 2;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS;
+    private static final long[] SEEDS = new SplittableRandom(0x6d696e68617368L).longs(SIGNATURE_LENGTH).toArray();
+    // Bounds the work a crowded bucket (many movies with the same few genres and no cast) can cause
+    private static final int MAX_BUCKET_SCAN = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogIndexWorker worker = new CatalogIndexWorker("MinHash index", "minhash-index", logger, this::rebuild);
+    private volatile Index index = new Index();
+    private final DistributionSummary candidateCount;
+
+    // Sorted features (actor id * 2, genre id * 2 + 1) and the movie's bucket key in each band
+    private record Entry(long[] features, long[] bandKeys) {
+    }
+
+    // Changed in place by the worker thread between rebuilds, replaced as a whole by a rebuild
+    private record Index(Map<Integer, Entry> entries, Map<Long, Set<Integer>> buckets) {
+        Index() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    public record Match(int movieId, double similarity, int sharedActors, int sharedGenres) {
+    }
+
+    public MinHashIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("movies.similar.indexed.movies", this, minHash -> minHash.index.entries().size())
+                .description("Movies with a MinHash signature")
+                .register(meterRegistry);
+        this.candidateCount = DistributionSummary.builder("movies.similar.candidates")
+                .description("LSH candidates re-ranked per similar-movies query")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws InterruptedException, ExecutionException {
+        worker.rebuildNow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() == CatalogChangeEvent.EntityType.MOVIE && event.getId() <= Integer.MAX_VALUE) {
+            long movieId = event.getId();
+            worker.submit(movieId, "movie " + movieId, () -> resync((int) movieId));
+        }
+    }
+
+    // Worker thread only
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Integer, List<Long>> features = new HashMap<>();
+        jdbcTemplate.query("select movie_id, actor_id from movie_actor", rs -> {
+            addFeature(features, rs.getLong(1), rs.getLong(2) << 1);
+        });
+        jdbcTemplate.query("select movie_id, genre_id from movie_genre", rs -> {
+            addFeature(features, rs.getLong(1), rs.getLong(2) << 1 | 1);
+        });
+        Index rebuilt = new Index();
+        features.forEach((movieId, movieFeatures) ->
+                put(rebuilt, movieId, movieFeatures.stream().mapToLong(Long::longValue).toArray()));
+        index = rebuilt;
+        logger.info("MinHash index built: {} movies in {} ms", rebuilt.entries().size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private static void addFeature(Map<Integer, List<Long>> features, long movieId, long feature) {
+        if (movieId <= Integer.MAX_VALUE) {
+            features.computeIfAbsent((int) movieId, id -> new ArrayList<>()).add(feature);
+        }
+    }
+
+    // Worker thread only
+    private void resync(int movieId) {
+        List<Long> stored = new ArrayList<>();
+        jdbcTemplate.query("select actor_id from movie_actor where movie_id = ?",
+                rs -> { stored.add(rs.getLong(1) << 1); }, movieId);
+        jdbcTemplate.query("select genre_id from movie_genre where movie_id = ?",
+                rs -> { stored.add(rs.getLong(1) << 1 | 1); }, movieId);
+        Index current = index;
+        remove(current, movieId);
+        if (!stored.isEmpty()) {
+            put(current, movieId, stored.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    private static void put(Index index, int movieId, long[] features) {
+        Arrays.sort(features);
+        long[] bandKeys = bandKeys(signature(features));
+        index.entries().put(movieId, new Entry(features, bandKeys));
+        for (long key : bandKeys) {
+            index.buckets().computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(movieId);
+        }
+    }
+
+    private static void remove(Index index, int movieId) {
+        Entry entry = index.entries().remove(movieId);
+        if (entry != null) {
+            for (long key : entry.bandKeys()) {
+                index.buckets().computeIfPresent(key,
+                        (k, members) -> members.remove(movieId) && members.isEmpty() ? null : members);
+            }
+        }
+    }
+
+    static int[] signature(long[] features) {
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                signature[i] = Math.min(signature[i], (int) mix(feature ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    // One key per band; the band number is mixed in so equal rows in different bands do not share a bucket
+    static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Movies most similar to the given one by exact Jaccard similarity of cast and genres, among the LSH candidates.
+     * The candidates sharing the most bands are re-ranked, up to maxCandidates of them. Empty for unindexed movies.
+     */
+    public List<Match> similarTo(int movieId, int limit, int maxCandidates) {
+        Index current = index;
+        Entry entry = current.entries().get(movieId);
+        if (entry == null) {
+            return List.of();
+        }
+        Map<Integer, Integer> sharedBands = new HashMap<>();
+        for (long key : entry.bandKeys()) {
+            Set<Integer> members = current.buckets().getOrDefault(key, Set.of());
+            int scanned = 0;
+            for (Integer member : members) {
+                if (scanned++ == MAX_BUCKET_SCAN) {
+                    break;
+                }
+                if (member != movieId) {
+                    sharedBands.merge(member, 1, Integer::sum);
+                }
+            }
+        }
+        candidateCount.record(sharedBands.size());
+
+        List<Match> matches = new ArrayList<>();
+        sharedBands.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxCandidates)
+                .forEach(candidate -> {
+                    Entry other = current.entries().get(candidate.getKey());
+                    Match match = other == null ? null : compare(candidate.getKey(), entry.features(), other.features());
+                    if (match != null && match.sharedActors() + match.sharedGenres() > 0) {
+                        matches.add(match);
+                    }
+                });
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparingInt(Match::movieId));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    // Exact Jaccard similarity of two sorted feature sets
+    static Match compare(int movieId, long[] features, long[] otherFeatures) {
+        int sharedActors = 0;
+        int sharedGenres = 0;
+        int i = 0;
+        int j = 0;
+        while (i < features.length && j < otherFeatures.length) {
+            if (features[i] < otherFeatures[j]) {
+                i++;
+            } else if (features[i] > otherFeatures[j]) {
+                j++;
+            } else {
+                if ((features[i] & 1) == 0) {
+                    sharedActors++;
+                } else {
+                    sharedGenres++;
+                }
+                i++;
+                j++;
+            }
+        }
+        int shared = sharedActors + sharedGenres;
+        double similarity = (double) shared / (features.length + otherFeatures.length - shared);
+        return new Match(movieId, similarity, sharedActors, sharedGenres);
+    }
+}
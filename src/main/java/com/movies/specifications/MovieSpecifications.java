@@ -0,0 +1,79 @@
+package com.movies.specifications;
+
+import com.movies.entities.Movie;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Composable filters for GET /api/movies. Each factory returns null when its parameter is absent,
+ * which Specification.where/and treat as "no restriction".
+ */
+public class MovieSpecifications {
+
+    // Movies featuring every listed actor
+    public static Specification<Movie> hasAllActors(Collection<Long> actorIds) {
+        return hasAllLinked("actors", actorIds);
+    }
+
+    // Movies tagged with every listed genre
+    public static Specification<Movie> hasAllGenres(Collection<Long> genreIds) {
+        return hasAllLinked("genres", genreIds);
+    }
+
+    public static Specification<Movie> releasedIn(Integer year) {
+        if (year == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("releaseYear"), year);
+    }
+
+    public static Specification<Movie> releasedBetween(Integer fromYear, Integer toYear) {
+        return between("releaseYear", fromYear, toYear);
+    }
+
+    public static Specification<Movie> durationBetween(Integer minDuration, Integer maxDuration) {
+        return between("duration", minDuration, maxDuration);
+    }
+
+    /*
+     * movie.id in (select movie_id from <join table> where <other>_id in (...) group by movie_id having count(*) = n)
+     * The subquery is answered from the join table's index on the other side's id, so the planner starts
+     * from the (usually small) set of linked movies instead of scanning the movie table.
+     */
+    private static Specification<Movie> hasAllLinked(String association, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        Collection<Long> distinctIds = new HashSet<>(ids);
+        return (root, query, cb) -> {
+            Subquery<Long> linked = query.subquery(Long.class);
+            Root<Movie> movie = linked.from(Movie.class);
+            Join<Movie, ?> other = movie.join(association);
+            linked.select(movie.get("id"))
+                    .where(other.get("id").in(distinctIds))
+                    .groupBy(movie.get("id"))
+                    .having(cb.equal(cb.count(other), (long) distinctIds.size()));
+            return root.get("id").in(linked);
+        };
+    }
+
+    private static Specification<Movie> between(String attribute, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.get(attribute), max);
+            }
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), min);
+            }
+            return cb.between(root.get(attribute), min, max);
+        };
+    }
+}
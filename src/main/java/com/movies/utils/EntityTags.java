@@ -0,0 +1,110 @@
+package com.movies.utils;
+
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import com.movies.exceptions.PreconditionFailedException;
+import com.movies.serialization.CatalogProtobufHttpMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * Strong ETags derived from the entity version columns.
+ * A movie's tag also covers its actors and genres, since their names are part of the movie's representation.
+ * Each response format is a representation of its own, and strong tags must differ between representations, so
+ * the format picked from the Accept header is folded into the tag: "7" for JSON, "7+cbor" for CBOR and so on.
+ */
+public class EntityTags {
+
+    // In the order the message converters are tried, so a wildcard Accept header picks JSON as they do
+    private enum Representation {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        CBOR(MediaType.APPLICATION_CBOR, "+cbor"),
+        SMILE(new MediaType("application", "x-jackson-smile"), "+smile"),
+        PROTOBUF(CatalogProtobufHttpMessageConverter.PROTOBUF, "+protobuf");
+
+        final MediaType mediaType;
+        final String suffix;
+
+        Representation(MediaType mediaType, String suffix) {
+            this.mediaType = mediaType;
+            this.suffix = suffix;
+        }
+    }
+
+    public static String forVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String forMovie(long version, long actorVersions, long genreVersions) {
+        return "\"" + version + "-" + actorVersions + "-" + genreVersions + "\"";
+    }
+
+    public static String forMovie(Movie movie) {
+        long actorVersions = movie.getActors().stream().mapToLong(Actor::getVersion).sum();
+        long genreVersions = movie.getGenres().stream().mapToLong(Genre::getVersion).sum();
+        return forMovie(movie.getVersion(), actorVersions, genreVersions);
+    }
+
+    // The tag of the representation this request's Accept header selects; for responses and If-None-Match
+    public static String negotiated(String eTag, WebRequest request) {
+        return withSuffix(eTag, negotiate(request.getHeader(HttpHeaders.ACCEPT)).suffix);
+    }
+
+    /**
+     * Rejects a write whose If-Match header names none of the current tag's representations; the client may have read
+     * the entity in any format. No header or "*" always passes. Weak tags never match, as If-Match compares strongly.
+     * The services call it inside the write transaction: it holds SQLite's write lock from BEGIN IMMEDIATE on, and the
+     * version columns catch writers on other connections, so no write can land between the check and the update.
+     */
+    public static void requireMatch(String ifMatch, String eTag) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        for (String requested : ifMatch.split(",")) {
+            String tag = requested.strip();
+            if (tag.equals("*") || tag.equals(eTag) || withoutSuffix(tag).equals(eTag)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("The resource has changed since " + ifMatch.strip() + " was read.");
+    }
+
+    private static String withoutSuffix(String tag) {
+        for (Representation representation : Representation.values()) {
+            if (!representation.suffix.isEmpty() && tag.endsWith(representation.suffix + "\"")) {
+                return tag.substring(0, tag.length() - representation.suffix.length() - 1) + "\"";
+            }
+        }
+        return tag;
+    }
+
+    private static String withSuffix(String eTag, String suffix) {
+        return suffix.isEmpty() ? eTag : eTag.substring(0, eTag.length() - 1) + suffix + "\"";
+    }
+
+    private static Representation negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Representation.JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(requested);
+        } catch (IllegalArgumentException ex) {
+            return Representation.JSON;  // the request fails content negotiation anyway
+        }
+        for (MediaType mediaType : requested) {
+            for (Representation representation : Representation.values()) {
+                if (mediaType.isCompatibleWith(representation.mediaType)) {
+                    return representation;
+                }
+            }
+        }
+        return Representation.JSON;
+    }
+}
@@ -0,0 +1,55 @@
+package com.movies.utils;
+
+import com.movies.exceptions.InvalidQueryParameterException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed value of a {@code fields} query parameter (sparse fieldset), e.g. {@code fields=id,title}.
+ * Fields are kept in the resource's canonical order, so the output does not depend on how the client listed them.
+ */
+public class FieldSelection {
+
+    private final List<String> fields;
+
+    private FieldSelection(List<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String fields, List<String> allowedFields) {
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!allowedFields.contains(trimmed)) {
+                throw new InvalidQueryParameterException(
+                        "Unknown field '" + trimmed + "'. Allowed fields are: " + String.join(", ", allowedFields) + ".");
+            }
+            requested.add(trimmed);
+        }
+        if (requested.isEmpty()) {
+            throw new InvalidQueryParameterException("'fields' must list at least one of: " + String.join(", ", allowedFields) + ".");
+        }
+
+        List<String> ordered = new ArrayList<>(requested.size());
+        for (String field : allowedFields) {
+            if (requested.contains(field)) {
+                ordered.add(field);
+            }
+        }
+        return new FieldSelection(ordered);
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+}
@@ -0,0 +1,62 @@
+package com.movies.utils;
+
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.exceptions.InvalidQueryParameterException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+public class IdListUtils {
+    private static final int MAX_IDS = 100;
+    private static final int MAX_BODY_IDS = 1000;
+
+    // Validates an ?ids= list and drops duplicates, keeping the first occurrence's position
+    public static List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidQueryParameterException("'ids' must list at least one id.");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);  // "ids=1,,2" binds an empty element as null
+        if (distinct.isEmpty() || distinct.size() > MAX_IDS) {
+            throw new InvalidQueryParameterException("'ids' must list between 1 and " + MAX_IDS + " distinct ids.");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // Validates an id array sent as request body (bulk association changes); an empty array is allowed
+    public static List<Long> distinctBodyIds(List<Long> ids) {
+        if (ids == null || ids.contains(null)) {
+            throw new InvalidQueryParameterException("Request body must be an array of ids, e.g. [1, 2, 3].");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.size() > MAX_BODY_IDS) {
+            throw new InvalidQueryParameterException("Request body must list at most " + MAX_BODY_IDS + " distinct ids.");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // Puts the entities loaded by one IN query back into request order and collects the ids that were not found
+    public static <T> MultiGetResponse<T> inRequestOrder(List<Long> ids, Collection<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>(found.size() * 2);
+        for (T entity : found) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> items = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                items.add(entity);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResponse<>(items, missingIds);
+    }
+}
@@ -0,0 +1,17 @@
+-- Natural keys used by the batched get-or-create of nested actors and genres (INSERT OR IGNORE)
+create unique index if not exists uk_actor_name_birth_date on actor (name, birth_date);
+create unique index if not exists uk_genre_name on genre (name);
+
+-- Catalog statistics (movie count and total duration per release year, genre and actor), kept current by the
+-- service mutations in the same transaction; POST /api/admin/stats/rebuild recomputes them from scratch
+create table if not exists stats_by_year (release_year integer primary key, movie_count integer not null, total_duration integer not null);
+create table if not exists stats_by_genre (genre_id integer primary key, movie_count integer not null, total_duration integer not null);
+create table if not exists stats_by_actor (actor_id integer primary key, movie_count integer not null, total_duration integer not null);
+
+-- Change feed behind GET /api/changes: one row per create, update, delete or link change, written in the changing
+-- transaction. Write transactions are serialized by SQLite's lock, so rows commit in sequence order
+create table if not exists change_log (seq integer primary key autoincrement, entity_type text not null, entity_id integer not null,
+    change_type text not null, changed_at integer not null);
+create index if not exists idx_change_log_entity on change_log (entity_type, entity_id, seq);
+-- Highest sequence number of an expired deletion; clients that synced before it must start over
+create table if not exists change_log_state (id integer primary key check (id = 1), expired_through integer not null);
@@ -0,0 +1,31 @@
+package com.movies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Copies of the seeded catalog under target/, so tests that start the application never write to the tracked database
+public final class ScratchDatabase {
+
+	private static final Path SEED = Path.of("src/main/resources/movie-db.sqlite");
+
+	private ScratchDatabase() {
+	}
+
+	// A fresh copy of the seeded database for each call; returns its JDBC URL
+	public static String copy(String name) {
+		Path target = Path.of("target", name + ".sqlite");
+		try {
+			Files.createDirectories(target.getParent());
+			Files.copy(SEED, target, StandardCopyOption.REPLACE_EXISTING);
+			Files.deleteIfExists(Path.of(target + "-journal"));
+			Files.deleteIfExists(Path.of(target + "-wal"));
+			Files.deleteIfExists(Path.of(target + "-shm"));
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return "jdbc:sqlite:" + target;
+	}
+}
@@ -0,0 +1,146 @@
+package com.movies.autocomplete;
+
+import com.movies.events.CatalogChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompleteIndexTests {
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private SimpleMeterRegistry meterRegistry;
+	private AutocompleteIndex index;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table movie (id integer primary key, title text)");
+		jdbcTemplate.execute("create table actor (id integer primary key, name text)");
+		jdbcTemplate.execute("create table movie_actor (movie_id integer, actor_id integer)");
+		jdbcTemplate.execute("insert into movie values (1, 'The Matrix'), (2, 'Matilda'), (3, 'Amélie')");
+		jdbcTemplate.execute("insert into actor values (1, 'Keanu Reeves'), (2, 'Carrie-Anne Moss'), (3, 'Mara Wilson')");
+		jdbcTemplate.execute("insert into movie_actor values (1, 1), (1, 2), (2, 3)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (index != null) {
+			index.shutdown();
+		}
+		dataSource.destroy();
+	}
+
+	@Test
+	void foldDropsCaseAccentsAndPunctuation() {
+		assertEquals("amelie le fabuleux destin", AutocompleteIndex.fold("  Amélie: Le Fabuleux-Destin! "));
+		assertEquals("", AutocompleteIndex.fold("?!"));
+	}
+
+	@Test
+	void keysStartAtEveryWord() {
+		assertEquals(List.of("the lord of the rings", "lord of the rings", "of the rings", "the rings", "rings"),
+				AutocompleteIndex.keysOf("The Lord of the Rings"));
+		assertEquals(List.of("carrie anne moss", "anne moss", "moss"), AutocompleteIndex.keysOf("Carrie-Anne Moss"));
+		assertEquals(List.of(), AutocompleteIndex.keysOf("..."));
+	}
+
+	@Test
+	void suggestionsMatchWordStartsMostPopularFirst() {
+		index = load(1000);
+		assertEquals(List.of("The Matrix", "Mara Wilson", "Matilda"), names("ma", 10));
+		assertEquals(List.of("The Matrix"), names("ma", 1));
+		assertEquals(List.of("The Matrix"), names("the mat", 10));
+		assertEquals(List.of("Amélie"), names("AME", 10));
+		assertEquals(List.of(), names("trix", 10));
+		assertEquals(List.of(), names("-", 10));
+	}
+
+	@Test
+	void changesArePatchedIntoTheOverlay() {
+		index = load(1000);
+		assertChangesApplied();
+		// Renamed and new items are in the overlay, next to the keys of the last rebuild
+		assertEquals(11.0 + 3, keyGauge());
+	}
+
+	@Test
+	void overlayPastTheThresholdIsCompacted() {
+		index = load(0);
+		assertChangesApplied();
+		assertEquals(11.0, keyGauge());
+	}
+
+	@Test
+	void crowdedPrefixesRankTheirMostPopularItems() {
+		jdbcTemplate.execute("insert into actor (id, name) with recursive n(i) as (select 100 union all select i + 1 from n "
+				+ "where i < 25100) select i, 'Aaron ' || i from n");
+		jdbcTemplate.execute("insert into actor values (30000, 'Azure Star')");
+		jdbcTemplate.execute("insert into movie_actor values (2, 30000), (3, 30000)");
+		index = load(1000);
+		assertEquals(List.of("Azure Star", "Amélie", "Carrie-Anne Moss", "Aaron 100"), names("a", 4));
+
+		// A renamed item leaves the prefix's list; the others keep their order
+		jdbcTemplate.execute("update actor set name = 'Zed Star' where id = 30000");
+		index.onCatalogChange(CatalogChangeEvent.actor(30000, CatalogChangeEvent.ChangeType.UPDATED));
+		await(() -> names("zed", 10).equals(List.of("Zed Star")));
+		assertEquals(List.of("Amélie", "Carrie-Anne Moss", "Aaron 100", "Aaron 1000"), names("a", 4));
+	}
+
+	// Renames movie 2, deletes actor 3, adds actor 4 and moves Keanu Reeves' only movie to actor 4
+	private void assertChangesApplied() {
+		jdbcTemplate.execute("update movie set title = 'Speed' where id = 2");
+		jdbcTemplate.execute("delete from movie_actor where actor_id = 3");
+		jdbcTemplate.execute("delete from actor where id = 3");
+		jdbcTemplate.execute("insert into actor values (4, 'Marlon Brando')");
+		jdbcTemplate.execute("update movie_actor set actor_id = 4 where actor_id = 1");
+		index.onCatalogChange(CatalogChangeEvent.movie(2, CatalogChangeEvent.ChangeType.UPDATED));
+		index.onCatalogChange(CatalogChangeEvent.actor(3, CatalogChangeEvent.ChangeType.DELETED));
+		index.onCatalogChange(CatalogChangeEvent.actor(4, CatalogChangeEvent.ChangeType.CREATED));
+		index.onCatalogChange(CatalogChangeEvent.movie(1, CatalogChangeEvent.ChangeType.LINKS_CHANGED));
+
+		await(() -> names("marl", 10).equals(List.of("Marlon Brando")) && index.suggest("marl", 1).get(0).popularity() == 1);
+		assertEquals(List.of("The Matrix", "Marlon Brando"), names("ma", 10));
+		assertEquals(List.of("Speed"), names("spe", 10));
+		assertEquals(List.of(), names("matilda", 10));
+		assertEquals(List.of(), names("wilson", 10));
+	}
+
+	private AutocompleteIndex load(int compactThreshold) {
+		meterRegistry = new SimpleMeterRegistry();
+		AutocompleteIndex loaded = new AutocompleteIndex(jdbcTemplate, meterRegistry, compactThreshold);
+		try {
+			loaded.load();
+		} catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+		return loaded;
+	}
+
+	private List<String> names(String query, int limit) {
+		return index.suggest(query, limit).stream().map(AutocompleteIndex.Suggestion::name).toList();
+	}
+
+	private double keyGauge() {
+		return meterRegistry.get("movies.autocomplete.keys").gauge().value();
+	}
+
+	// Changes are applied by the index's worker thread
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "change was not applied in time");
+			Thread.onSpinWait();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.movies.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final int MIN_SAMPLES = 10;
+
+	private final AtomicLong time = new AtomicLong();
+
+	@Test
+	void requestsOverTheLimitAreRefused() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, WINDOW, time::get);
+		assertEquals(1, limit.tryAcquire());
+		assertEquals(2, limit.tryAcquire());
+		assertEquals(-1, limit.tryAcquire());
+		limit.release();
+		assertEquals(2, limit.tryAcquire());
+	}
+
+	@Test
+	void growsWhileLatencyHoldsAndShrinksWhenItRises() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 2.0, WINDOW, time::get);
+		// A busy but healthy backend: the limit climbs
+		runWindows(limit, 20, FAST);
+		int grown = limit.getLimit();
+		assertTrue(grown > 30, "limit " + grown);
+
+		// Latency jumps tenfold: within a second the limit falls well below where it was
+		runWindows(limit, 10, 10 * FAST);
+		assertTrue(limit.getLimit() < grown / 2, "limit " + limit.getLimit() + " after " + grown);
+
+		// Stuck at the new speed, the long-term average catches up and the limit grows again
+		int low = limit.getLimit();
+		runWindows(limit, 300, 10 * FAST);
+		assertTrue(limit.getLimit() > low, "limit " + limit.getLimit() + " after " + low);
+	}
+
+	@Test
+	void idleTrafficDoesNotRaiseTheLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 2.0, WINDOW, time::get);
+		for (int window = 0; window < 20; window++) {
+			for (int i = 0; i < MIN_SAMPLES; i++) {
+				limit.tryAcquire();
+				limit.release(FAST, 1);
+			}
+			time.addAndGet(WINDOW);
+			limit.tryAcquire();
+			limit.release(FAST, 1);
+		}
+		assertEquals(20, limit.getLimit());
+	}
+
+	// Each window: as many requests in flight as the limit allows, all with the given latency
+	private void runWindows(AdaptiveConcurrencyLimit limit, int windows, long rtt) {
+		for (int window = 0; window < windows; window++) {
+			int admitted = 0;
+			while (limit.tryAcquire() > 0) {
+				admitted++;
+			}
+			time.addAndGet(WINDOW);
+			for (int i = 0; i < admitted; i++) {
+				limit.release(rtt, admitted);
+			}
+		}
+	}
+}
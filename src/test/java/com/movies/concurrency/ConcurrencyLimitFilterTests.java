@@ -0,0 +1,66 @@
+package com.movies.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// Reads 4, writes 1, logins 2, all fixed
+	private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, true, 4, 4, 4, 1, 1, 1, 2, 2, 2,
+			2.0, Duration.ofMillis(100));
+
+	@Test
+	void loginsHaveTheirOwnLimit() throws Exception {
+		List<Integer> statuses = new ArrayList<>();
+		// Each login is still in flight while the next request arrives
+		perform("POST", "/api/auth/login", statuses, (request, response) ->
+				perform("POST", "/api/auth/login", statuses, (nestedRequest, nestedResponse) -> {
+					perform("POST", "/api/auth/login", statuses, (last, lastResponse) -> {
+					});
+					perform("POST", "/api/movies", statuses, (write, writeResponse) -> {
+					});
+				}));
+
+		// Third login, write, second login, first login
+		assertEquals(List.of(503, 200, 200, 200), statuses);
+		assertEquals(1.0, shed("auth"));
+		assertEquals(0.0, shed("write"));
+		assertEquals(1.0, meterRegistry.get("movies.concurrency.limit").tag("kind", "write").gauge().value());
+	}
+
+	@Test
+	void writesStillShareOneLimit() throws Exception {
+		List<Integer> statuses = new ArrayList<>();
+		perform("POST", "/api/movies", statuses, (request, response) ->
+				perform("DELETE", "/api/genres/1", statuses, (nestedRequest, nestedResponse) -> {
+				}));
+
+		assertEquals(List.of(503, 200), statuses);
+		assertEquals(1.0, shed("write"));
+	}
+
+	private void perform(String method, String uri, List<Integer> statuses, FilterChain chain) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			filter.doFilter(request, response, chain);
+		} catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+		statuses.add(response.getStatus());
+	}
+
+	private double shed(String kind) {
+		return meterRegistry.get("movies.concurrency.shed").tag("kind", kind).counter().count();
+	}
+}
@@ -0,0 +1,106 @@
+package com.movies.concurrency;
+
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import com.movies.interfaces.ActorRepository;
+import com.movies.interfaces.GenreRepository;
+import com.movies.interfaces.MovieRepository;
+import com.movies.repositories.MovieAssociationRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
+import com.movies.services.MovieService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Many threads add links to the same movie at once; every link and every version bump must survive
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/concurrency-tests.sqlite")
+class ConcurrentAssociationTests {
+
+	private static final int THREADS = 16;
+	private static final int ACTORS = 64;
+	private static final int GENRES = 16;
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private ActorRepository actorRepository;
+
+	@Autowired
+	private GenreRepository genreRepository;
+
+	@Autowired
+	private MovieAssociationRepository movieAssociationRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void concurrentAddsLoseNoLinks() throws Exception {
+		String suffix = UUID.randomUUID().toString();
+		Movie movie = new Movie();
+		movie.setTitle("Ensemble " + suffix);
+		movie.setReleaseYear(2000);
+		movie.setDuration(120);
+		long movieId = movieRepository.save(movie).getId();
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int i = 0; i < ACTORS; i++) {
+			Actor actor = new Actor();
+			actor.setName("Actor " + i + " " + suffix);
+			actor.setBirthDate(LocalDate.of(1970, 1, 1).plusDays(i));
+			long actorId = actorRepository.save(actor).getId();
+			tasks.add(() -> {
+				movieService.addActorToMovie(movieId, actorId);
+				return null;
+			});
+		}
+		for (int i = 0; i < GENRES; i++) {
+			Genre genre = new Genre();
+			genre.setName("Genre " + i + " " + suffix);
+			long genreId = genreRepository.save(genre).getId();
+			tasks.add(() -> {
+				movieService.addGenreToMovie(movieId, genreId);
+				return null;
+			});
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> results = new ArrayList<>();
+		for (Callable<Void> task : tasks) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+		}
+		start.countDown();
+		for (Future<Void> result : results) {
+			result.get();  // rethrows a failed add, e.g. a conflict that outlasted its retries
+		}
+		pool.shutdown();
+
+		assertEquals(ACTORS, movieAssociationRepository.countLinksOfMovie(Association.ACTORS, movieId));
+		assertEquals(GENRES, movieAssociationRepository.countLinksOfMovie(Association.GENRES, movieId));
+		// Each add bumps the version exactly once
+		assertEquals(ACTORS + GENRES, movieRepository.findVersionById(movieId).orElseThrow());
+		assertEquals(0, meterRegistry.find("movies.concurrency.retries.exhausted").counters().size());
+	}
+}
@@ -0,0 +1,116 @@
+package com.movies.concurrency;
+
+import com.movies.exceptions.GlobalExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Conflicts cannot be provoked through the services (BEGIN IMMEDIATE serializes writers), so they are thrown here
+class ConflictRetryAspectTests {
+
+	private static final int MAX_ATTEMPTS = 4;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final EntityManager entityManager = Mockito.mock(EntityManager.class);
+	private final Flaky target = new Flaky();
+	private Flaky flaky;
+
+	static class Flaky {
+		final AtomicInteger calls = new AtomicInteger();
+		int failures;
+		boolean busy;
+
+		@RetryOnConflict
+		public String update() throws SQLiteException {
+			if (calls.incrementAndGet() <= failures) {
+				if (busy) {
+					throw new SQLiteException("database is locked", SQLiteErrorCode.SQLITE_BUSY);
+				}
+				throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+			}
+			return "updated";
+		}
+	}
+
+	@RestController
+	static class FlakyController {
+		private final Flaky flaky;
+
+		FlakyController(Flaky flaky) {
+			this.flaky = flaky;
+		}
+
+		@PostMapping("/flaky")
+		public String update() throws SQLiteException {
+			return flaky.update();
+		}
+	}
+
+	@BeforeEach
+	void proxy() {
+		ConflictRetryAspect aspect = new ConflictRetryAspect(meterRegistry, MAX_ATTEMPTS, 1, 2);
+		ReflectionTestUtils.setField(aspect, "entityManager", entityManager);
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(aspect);
+		flaky = factory.getProxy();
+	}
+
+	@Test
+	void versionConflictsAreRetriedUntilTheySucceed() throws Exception {
+		target.failures = 2;
+		assertEquals("updated", flaky.update());
+		assertEquals(3, target.calls.get());
+		assertEquals(2, count("movies.concurrency.conflicts"));
+		assertEquals(2, count("movies.concurrency.retries"));
+		assertEquals(0, count("movies.concurrency.retries.exhausted"));
+		Mockito.verify(entityManager, Mockito.times(2)).clear();
+	}
+
+	@Test
+	void busyDatabaseIsRetriedToo() throws Exception {
+		target.failures = 1;
+		target.busy = true;
+		assertEquals("updated", flaky.update());
+		assertEquals(1, count("movies.concurrency.retries"));
+	}
+
+	@Test
+	void exhaustedRetriesAreAnsweredWithConflict() throws Exception {
+		target.failures = Integer.MAX_VALUE;
+		target.busy = true;
+		assertThrows(ConcurrencyFailureException.class, flaky::update);
+		assertEquals(MAX_ATTEMPTS, target.calls.get());
+		assertEquals(MAX_ATTEMPTS - 1, count("movies.concurrency.retries"));
+		assertEquals(1, count("movies.concurrency.retries.exhausted"));
+
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FlakyController(flaky))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+		mockMvc.perform(post("/flaky")).andExpect(status().isConflict());
+	}
+
+	private double count(String name) {
+		return meterRegistry.find(name).counters().stream().mapToDouble(counter -> counter.count()).sum();
+	}
+}
@@ -0,0 +1,97 @@
+package com.movies.controller;
+
+import com.movies.ScratchDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// If-Match is checked inside the write transaction: of several writes sent with the same ETag only the first succeeds
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalWriteTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("conditional-write-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@Test
+	void secondPatchWithTheSameETagFails() throws Exception {
+		String eTag = eTagOf("/api/movies/2");
+		mockMvc.perform(patch("/api/movies/2").with(user("first")).header(HttpHeaders.IF_MATCH, eTag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"duration\": 111}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(patch("/api/movies/2").with(user("second")).header(HttpHeaders.IF_MATCH, eTag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"duration\": 222}"))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void concurrentPatchesWithTheSameETagLetOneThrough() throws Exception {
+		String eTag = eTagOf("/api/actors/3");
+		int writers = 6;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		try {
+			List<Future<Integer>> statuses = new ArrayList<>();
+			for (int i = 0; i < writers; i++) {
+				String name = "Renamed " + i;
+				statuses.add(pool.submit(() -> {
+					start.await();
+					return mockMvc.perform(patch("/api/actors/3").with(user("writer")).header(HttpHeaders.IF_MATCH, eTag)
+									.contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"" + name + "\", \"birthDate\": \"1970-01-01\"}"))
+							.andReturn().getResponse().getStatus();
+				}));
+			}
+			start.countDown();
+			List<Integer> results = new ArrayList<>();
+			for (Future<Integer> status : statuses) {
+				results.add(status.get());
+			}
+			assertEquals(1, results.stream().filter(status -> status == 200).count(), results.toString());
+			assertEquals(writers - 1, results.stream().filter(status -> status == 412).count(), results.toString());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void deleteWithAStaleETagFailsAndKeepsTheEntity() throws Exception {
+		String eTag = eTagOf("/api/genres/4");
+		mockMvc.perform(patch("/api/genres/4").with(user("editor")).header(HttpHeaders.IF_MATCH, eTag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Renamed genre\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/api/genres/4").with(user("editor")).param("forceDelete", "true").header(HttpHeaders.IF_MATCH, eTag))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get("/api/genres/4").with(user("reader"))).andExpect(status().isOk());
+	}
+
+	private String eTagOf(String url) throws Exception {
+		return mockMvc.perform(get(url).with(user("reader"))).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+}
@@ -0,0 +1,49 @@
+package com.movies.controller;
+
+import com.movies.ScratchDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Adding a single link answers with the movie as stored after the change, as it always has
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class MovieLinkEndpointTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("movie-link-endpoint-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@Test
+	void addingAnActorReturnsTheMovie() throws Exception {
+		mockMvc.perform(post("/api/movies/1/actors/40"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id").value(1))
+				.andExpect(jsonPath("$.title").isString())
+				.andExpect(jsonPath("$.actors[*].id", hasItem(40)));
+	}
+
+	@Test
+	void addingAGenreReturnsTheMovie() throws Exception {
+		mockMvc.perform(post("/api/movies/1/genres/11"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id").value(1))
+				.andExpect(jsonPath("$.genres[*].id", hasItem(11)));
+	}
+}
@@ -0,0 +1,38 @@
+package com.movies.existence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentBitSetTests {
+
+	@Test
+	void setGrowsAndClearRemoves() {
+		ConcurrentBitSet bits = new ConcurrentBitSet(1_000_000);
+		bits.set(1);
+		bits.set(63);
+		bits.set(64);
+		bits.set(500_000);  // beyond the initial words
+		assertTrue(bits.get(1) && bits.get(63) && bits.get(64) && bits.get(500_000));
+		assertFalse(bits.get(2) || bits.get(65) || bits.get(499_999));
+		assertEquals(4, bits.cardinality());
+
+		bits.clear(64);
+		assertFalse(bits.get(64));
+		assertTrue(bits.get(63));
+		assertEquals(3, bits.cardinality());
+	}
+
+	@Test
+	void outOfRangeBitsAreNeverStored() {
+		ConcurrentBitSet bits = new ConcurrentBitSet(100);
+		bits.set(-1);
+		bits.set(100);
+		assertFalse(bits.get(-1));
+		assertFalse(bits.get(100));
+		assertFalse(bits.inRange(100));
+		assertEquals(0, bits.cardinality());
+	}
+}
@@ -0,0 +1,121 @@
+package com.movies.existence;
+
+import com.movies.DTOs.GenreDTO;
+import com.movies.ScratchDatabase;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import com.movies.exceptions.ResourceNotFoundException;
+import com.movies.monitoring.RequestQueryStats;
+import com.movies.services.GenreService;
+import com.movies.services.MovieService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The filter may only err towards "might exist": unknown ids skip the query, but no existing row is ever ruled out
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class IdExistenceFilterTests {
+
+	@Autowired
+	private IdExistenceFilter filter;
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private GenreService genreService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("id-existence-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@Test
+	void unknownIdIsRejectedWithoutAQuery() {
+		RequestQueryStats stats = RequestQueryStats.begin();
+		try {
+			assertThrows(ResourceNotFoundException.class, () -> movieService.getMovieById(99_999L));
+			assertEquals(0, stats.getStatements());
+
+			movieService.getMovieById(1L);
+			assertTrue(stats.getStatements() > 0, "known ids still go to the database");
+		} finally {
+			RequestQueryStats.end();
+		}
+	}
+
+	@Test
+	void rejectionKeepsTheErrorBody() throws Exception {
+		mockMvc.perform(get("/api/movies/99999"))
+				.andExpect(status().isNotFound())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(content().string("{\"error\":\"Movie not found with id 99999\"}"));
+		mockMvc.perform(get("/api/genres/99999"))
+				.andExpect(status().isNotFound())
+				.andExpect(content().string("{\"error\":\"Genre not found with id 99999\"}"));
+	}
+
+	@Test
+	void rowsInsertedWithJdbcArePickedUp() throws Exception {
+		Genre created = genreService.getOrCreateGenres(List.of(genre("Batch " + UUID.randomUUID()))).get(0);
+
+		assertTrue(filter.mightExist(Genre.class, created.getId()));
+		mockMvc.perform(get("/api/genres/" + created.getId())).andExpect(status().isOk());
+	}
+
+	@Test
+	void rolledBackDeleteKeepsTheId() {
+		Long id = genreService.getOrCreateGenres(List.of(genre("Doomed " + UUID.randomUUID()))).get(0).getId();
+
+		transactionTemplate.executeWithoutResult(transaction -> {
+			genreService.deleteGenre(id, false, null);
+			entityManager.flush();
+			// Flushed but not committed: other connections still see the row
+			assertTrue(filter.mightExist(Genre.class, id));
+			transaction.setRollbackOnly();
+		});
+		assertTrue(filter.mightExist(Genre.class, id));
+		assertEquals(id, genreService.getGenreById(id).getId());
+
+		genreService.deleteGenre(id, false, null);
+		assertFalse(filter.mightExist(Genre.class, id));
+		assertTrue(filter.mightExist(Movie.class, 1L));
+	}
+
+	private static GenreDTO genre(String name) {
+		GenreDTO genreDTO = new GenreDTO();
+		genreDTO.setName(name);
+		return genreDTO;
+	}
+}
@@ -0,0 +1,130 @@
+package com.movies.graph;
+
+import com.movies.events.CatalogChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Movies 1-3 chain actors 1-2-3-4; movie 4 links actors 5 and 6, who are not connected to them
+class CoStarGraphTests {
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private CoStarGraph graph;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table movie_actor (movie_id integer, actor_id integer)");
+		jdbcTemplate.execute("insert into movie_actor values (1, 1), (1, 2), (2, 2), (2, 3), (3, 3), (3, 4), (4, 5), (4, 6)");
+		graph = load(10_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		graph.shutdown();
+		dataSource.destroy();
+	}
+
+	@Test
+	void neighbourhoodStopsAtTheHopLimit() {
+		assertEquals(ordered(2, 1), neighbourhood(graph, 1, 1, 10));
+		assertEquals(ordered(2, 1, 3, 2, 4, 3), neighbourhood(graph, 1, 3, 10));
+		assertEquals(ordered(2, 1, 3, 2, 4, 3), neighbourhood(graph, 1, 9, 10));
+		assertEquals(ordered(), neighbourhood(graph, 7, 2, 10));
+	}
+
+	@Test
+	void neighbourhoodIsCutToTheResultCapNearestFirst() {
+		assertEquals(ordered(1, 1), neighbourhood(graph, 2, 2, 1));
+		assertEquals(ordered(1, 1, 3, 1), neighbourhood(graph, 2, 2, 2));
+		assertEquals(ordered(1, 1, 3, 1, 4, 2), neighbourhood(graph, 2, 2, 3));
+	}
+
+	@Test
+	void shortestPathAlternatesActorsAndMovies() {
+		assertArrayEquals(new int[]{1}, graph.shortestPath(1, 1, 0));
+		assertArrayEquals(new int[]{1, 1, 2}, graph.shortestPath(1, 2, 1));
+		assertArrayEquals(new int[]{1, 1, 2, 2, 3, 3, 4}, graph.shortestPath(1, 4, 3));
+		assertArrayEquals(new int[]{4, 3, 3, 2, 2, 1, 1}, graph.shortestPath(4, 1, 3));
+	}
+
+	@Test
+	void shortestPathRespectsMaxHopsAndDisconnectedActors() {
+		assertNull(graph.shortestPath(1, 4, 2));
+		assertNull(graph.shortestPath(1, 5, 10));
+		assertNull(graph.shortestPath(1, 7, 10));
+	}
+
+	@Test
+	void resyncAppliesAddedAndRemovedLinks() {
+		assertResyncApplied(graph);
+	}
+
+	@Test
+	void resyncPastTheCompactThresholdRebuilds() {
+		graph.shutdown();
+		graph = load(0);
+		assertResyncApplied(graph);
+	}
+
+	private void assertResyncApplied(CoStarGraph graph) {
+		jdbcTemplate.execute("insert into movie_actor values (5, 1), (5, 4)");
+		graph.onCatalogChange(CatalogChangeEvent.movie(5, CatalogChangeEvent.ChangeType.CREATED));
+		await(() -> graph.shortestPath(1, 4, 1) != null);
+		assertArrayEquals(new int[]{1, 5, 4}, graph.shortestPath(1, 4, 3));
+		assertEquals(ordered(2, 1, 4, 1, 3, 2), neighbourhood(graph, 1, 2, 10));
+
+		jdbcTemplate.execute("delete from movie_actor where movie_id = 2");
+		graph.onCatalogChange(CatalogChangeEvent.movie(2, CatalogChangeEvent.ChangeType.LINKS_CHANGED));
+		await(() -> graph.neighbourhood(2, 1, 10).size() == 1);
+		assertEquals(ordered(1, 1, 4, 2, 3, 3), neighbourhood(graph, 2, 3, 10));
+		assertArrayEquals(new int[]{1, 5, 4, 3, 3}, graph.shortestPath(1, 3, 5));
+	}
+
+	private CoStarGraph load(int compactThreshold) {
+		CoStarGraph loaded = new CoStarGraph(jdbcTemplate, new SimpleMeterRegistry(), compactThreshold);
+		try {
+			loaded.load();
+		} catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+		return loaded;
+	}
+
+	// Entries in result order, so the nearest-first, then by id order is checked too
+	private static List<Map.Entry<Integer, Integer>> neighbourhood(CoStarGraph graph, int actorId, int hops, int limit) {
+		return List.copyOf(graph.neighbourhood(actorId, hops, limit).entrySet());
+	}
+
+	private static List<Map.Entry<Integer, Integer>> ordered(int... actorDistancePairs) {
+		List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+		for (int i = 0; i < actorDistancePairs.length; i += 2) {
+			entries.add(Map.entry(actorDistancePairs[i], actorDistancePairs[i + 1]));
+		}
+		return entries;
+	}
+
+	// Changes are applied by the graph's worker thread
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "change was not applied in time");
+			Thread.onSpinWait();
+		}
+	}
+}
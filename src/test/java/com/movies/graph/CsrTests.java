@@ -0,0 +1,47 @@
+package com.movies.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsrTests {
+
+	@Test
+	void buildGroupsEdgesBySourceAndSortsNeighbours() {
+		int[] sources = {2, 0, 2, 2, 0, 9};
+		int[] destinations = {7, 3, 1, 5, 1, 4};
+		Csr csr = Csr.build(4, sources, destinations, 5);  // the last edge is beyond edgeCount and ignored
+
+		assertEquals(4, csr.nodeCount());
+		assertEquals(5, csr.edgeCount());
+		assertArrayEquals(new int[]{1, 3}, csr.neighbours(0));
+		assertArrayEquals(new int[0], csr.neighbours(1));
+		assertArrayEquals(new int[]{1, 5, 7}, csr.neighbours(2));
+		assertEquals(3, csr.degree(2));
+		assertEquals(0, csr.degree(3));
+	}
+
+	@Test
+	void nodesBeyondTheTableHaveNoNeighbours() {
+		Csr csr = Csr.build(2, new int[]{1}, new int[]{0}, 1);
+		assertArrayEquals(new int[0], csr.neighbours(-1));
+		assertArrayEquals(new int[0], csr.neighbours(2));
+		assertEquals(0, csr.degree(5));
+		assertTrue(csr.forEach(5, value -> false));
+		assertEquals(0, Csr.EMPTY.nodeCount());
+	}
+
+	@Test
+	void forEachStopsWhenTheVisitorDoes() {
+		Csr csr = Csr.build(1, new int[]{0, 0, 0}, new int[]{3, 1, 2}, 3);
+		List<Integer> visited = new ArrayList<>();
+		assertFalse(csr.forEach(0, value -> visited.add(value) && value < 2));
+		assertEquals(List.of(1, 2), visited);
+	}
+}
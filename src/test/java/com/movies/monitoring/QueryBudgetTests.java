@@ -0,0 +1,51 @@
+package com.movies.monitoring;
+
+import com.movies.ScratchDatabase;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Read endpoints must stay within their declared @QueryBudget; an overrun throws QueryBudgetExceededException
+@SpringBootTest(properties = "movies.sql.budget.fail-on-exceed=true")
+@AutoConfigureMockMvc
+@WithMockUser
+class QueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("query-budget-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"/api/movies", "/api/movies?genre=1", "/api/movies?actor=1", "/api/movies?year=2010",
+			"/api/movies?actor=1,2&genre=1&yearFrom=2000&maxDuration=200", "/api/movies?genre=1&genre=2&minDuration=100",
+			"/api/movies?ids=3,1,2,999", "/api/actors?ids=2,1,999", "/api/genres?ids=2,1,999",
+			"/api/movies/1", "/api/movies/1/actors", "/api/movies/1/genres",
+			"/api/actors", "/api/actors/1", "/api/actors?name=a",
+			"/api/genres", "/api/genres/1", "/api/genres/search?name=a",
+			"/api/movies/1?fields=id,title", "/api/movies/search?title=a&fields=title,actors,genres",
+			"/api/actors?fields=name", "/api/actors/1?fields=id", "/api/genres?fields=name", "/api/genres/1?fields=name",
+			"/api/stats/years", "/api/stats/years/2010", "/api/stats/genres", "/api/stats/genres/1", "/api/stats/actors", "/api/stats/actors/1",
+			"/api/actors/1/co-stars", "/api/actors/1/co-stars?hops=3", "/api/actors/1/connection/2",
+			"/api/movies/1/similar", "/api/movies/1/similar?limit=100",
+			"/api/autocomplete?q=the", "/api/autocomplete?q=Leo&limit=50",
+			"/api/changes", "/api/changes?since=5&limit=1000"
+	})
+	void readEndpointsStayWithinBudget(String url) throws Exception {
+		mockMvc.perform(get(url)).andExpect(status().is2xxSuccessful());
+	}
+}
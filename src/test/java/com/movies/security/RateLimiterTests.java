@@ -0,0 +1,102 @@
+package com.movies.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong time = new AtomicLong();
+
+	// Reads: 5 tokens, 1 per second; writes: 2 tokens, 1 per second; logins: 1 token, 1 per 10 seconds
+	private RateLimiter limiter(int maxKeys) {
+		return new RateLimiter(5, 1, 2, 1, 1, 0.1, maxKeys, time::get);
+	}
+
+	@Test
+	void burstThenRefill() {
+		RateLimiter limiter = limiter(100);
+		for (int i = 4; i >= 0; i--) {
+			RateLimiter.Decision decision = limiter.acquire(RateLimiter.Kind.READ, "alice");
+			assertTrue(decision.allowed());
+			assertEquals(i, decision.remaining());
+		}
+		RateLimiter.Decision refused = limiter.acquire(RateLimiter.Kind.READ, "alice");
+		assertFalse(refused.allowed());
+		assertEquals(SECOND, refused.retryAfterNanos());
+		assertEquals(5 * SECOND, refused.resetNanos());
+
+		// Other kinds and other clients have their own buckets
+		assertTrue(limiter.acquire(RateLimiter.Kind.WRITE, "alice").allowed());
+		assertTrue(limiter.acquire(RateLimiter.Kind.READ, "bob").allowed());
+
+		time.addAndGet(SECOND);
+		assertTrue(limiter.acquire(RateLimiter.Kind.READ, "alice").allowed());
+		assertFalse(limiter.acquire(RateLimiter.Kind.READ, "alice").allowed());
+
+		assertTrue(limiter.acquire(RateLimiter.Kind.LOGIN, "10.0.0.1").allowed());
+		assertEquals(10 * SECOND, limiter.acquire(RateLimiter.Kind.LOGIN, "10.0.0.1").retryAfterNanos());
+	}
+
+	@Test
+	void fullBucketsAreEvictedAndExtraClientsShareOne() {
+		RateLimiter limiter = limiter(2);
+		for (int i = 0; i < 2; i++) {
+			limiter.acquire(RateLimiter.Kind.WRITE, "a");
+			limiter.acquire(RateLimiter.Kind.WRITE, "b");
+		}
+		// No room for more buckets: c and d draw from the shared one
+		assertTrue(limiter.acquire(RateLimiter.Kind.WRITE, "c").allowed());
+		assertTrue(limiter.acquire(RateLimiter.Kind.WRITE, "d").allowed());
+		assertFalse(limiter.acquire(RateLimiter.Kind.WRITE, "e").allowed());
+		assertEquals(2, limiter.size());
+
+		// Half refilled after a second, full after two
+		time.addAndGet(SECOND);
+		limiter.evictIdle();
+		assertEquals(2, limiter.size());
+		time.addAndGet(SECOND);
+		limiter.evictIdle();
+		assertEquals(0, limiter.size());
+		assertTrue(limiter.acquire(RateLimiter.Kind.WRITE, "e").allowed());
+	}
+
+	@Test
+	void concurrentClientsNeverGetMoreThanTheCapacity() throws Exception {
+		RateLimiter limiter = new RateLimiter(1000, 1, 1, 1, 1, 1, 100, time::get);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				results.add(pool.submit(() -> {
+					int allowed = 0;
+					for (int i = 0; i < 500; i++) {
+						if (limiter.acquire(RateLimiter.Kind.READ, "shared").allowed()) {
+							allowed++;
+						}
+					}
+					return allowed;
+				}));
+			}
+			int allowed = 0;
+			for (Future<Integer> result : results) {
+				allowed += result.get();
+			}
+			assertEquals(1000, allowed);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.movies.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogJsonPageWriterTests {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@Test
+	void writesTheSameDocumentAsJackson() throws Exception {
+		Actor actor = new Actor();
+		ReflectionTestUtils.setField(actor, "id", 7L);
+		actor.setName("Zoë \"Q\" Kravitz");
+		Genre genre = new Genre();
+		genre.setId(3L);
+		genre.setName(null);
+
+		assertSameAsJackson(new PageImpl<>(List.of(new MovieMinimalDTO(1L, "Inception", 2010, 148), new MovieMinimalDTO(2L, "Up", 2009, 96)),
+				PageRequest.of(1, 2), 41));
+		assertSameAsJackson(new PageImpl<>(List.of(actor), PageRequest.of(0, 10), 1));
+		assertSameAsJackson(new PageImpl<>(List.of(genre), PageRequest.of(3, 1), 4));
+		assertSameAsJackson(new PageImpl<>(List.<Genre>of(), PageRequest.of(5, 10), 4));
+	}
+
+	@Test
+	void onlyMovieActorAndGenrePagesAreSupported() {
+		assertTrue(CatalogJsonPageWriter.supports(ResolvableType.forClassWithGenerics(Page.class, Actor.class).getType()));
+		assertFalse(CatalogJsonPageWriter.supports(ResolvableType.forClassWithGenerics(Page.class, String.class).getType()));
+		assertFalse(CatalogJsonPageWriter.supports(ResolvableType.forClassWithGenerics(List.class, Actor.class).getType()));
+	}
+
+	private void assertSameAsJackson(Page<?> page) throws Exception {
+		StringWriter written = new StringWriter();
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(written)) {
+			CatalogJsonPageWriter.write(generator, page);
+		}
+		// Jackson's order of the page's own properties follows reflection and is not fixed, so compare trees
+		assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(page)), objectMapper.readTree(written.toString()));
+	}
+}
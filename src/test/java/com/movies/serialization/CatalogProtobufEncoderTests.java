@@ -0,0 +1,80 @@
+package com.movies.serialization;
+
+import com.google.protobuf.UnknownFieldSet;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.DTOs.MultiGetResponse;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogProtobufEncoderTests {
+
+	@Test
+	void movieFollowsTheSchema() throws Exception {
+		Actor actor = new Actor();
+		ReflectionTestUtils.setField(actor, "id", 7L);
+		actor.setName("Ellen Page");
+		Genre genre = new Genre();
+		genre.setId(3L);
+		genre.setName("Sci-Fi");
+		Movie movie = new Movie();
+		ReflectionTestUtils.setField(movie, "id", 1L);
+		movie.setTitle("Inception");
+		movie.setReleaseYear(2010);
+		movie.setDuration(148);
+		movie.setActors(Set.of(actor));
+		movie.setGenres(Set.of(genre));
+
+		UnknownFieldSet message = UnknownFieldSet.parseFrom(encode(movie, Movie.class));
+		assertEquals(List.of(1L), message.getField(1).getVarintList());
+		assertEquals("Inception", message.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+		assertEquals(List.of(2010L), message.getField(3).getVarintList());
+		assertEquals(List.of(148L), message.getField(4).getVarintList());
+		UnknownFieldSet encodedActor = UnknownFieldSet.parseFrom(message.getField(5).getLengthDelimitedList().get(0));
+		assertEquals(List.of(7L), encodedActor.getField(1).getVarintList());
+		assertEquals("Ellen Page", encodedActor.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+		UnknownFieldSet encodedGenre = UnknownFieldSet.parseFrom(message.getField(6).getLengthDelimitedList().get(0));
+		assertEquals("Sci-Fi", encodedGenre.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+	}
+
+	@Test
+	void pagesAndMultiGetsCarryTheirMetadata() throws Exception {
+		PageImpl<MovieMinimalDTO> page = new PageImpl<>(List.of(new MovieMinimalDTO(1L, "Inception", 2010, 148)), PageRequest.of(2, 1), 30);
+		UnknownFieldSet pageMessage = UnknownFieldSet.parseFrom(encode(page, ResolvableType.forClassWithGenerics(PageImpl.class, MovieMinimalDTO.class).getType()));
+		assertEquals(1, pageMessage.getField(1).getLengthDelimitedList().size());
+		UnknownFieldSet pageInfo = UnknownFieldSet.parseFrom(pageMessage.getField(2).getLengthDelimitedList().get(0));
+		assertEquals(List.of(2L), pageInfo.getField(1).getVarintList());
+		assertEquals(List.of(30L), pageInfo.getField(3).getVarintList());
+
+		MultiGetResponse<Actor> response = new MultiGetResponse<>(List.of(), List.of(999L, 1000L));
+		UnknownFieldSet multiGet = UnknownFieldSet.parseFrom(encode(response, ResolvableType.forClassWithGenerics(MultiGetResponse.class, Actor.class).getType()));
+		assertFalse(multiGet.hasField(1));
+		assertTrue(multiGet.hasField(3));  // packed: one length-delimited record holding both ids
+	}
+
+	@Test
+	void onlyCatalogResourcesAreSupported() {
+		assertTrue(CatalogProtobufEncoder.supports(ResolvableType.forClassWithGenerics(Set.class, Actor.class).getType()));
+		assertFalse(CatalogProtobufEncoder.supports(ResolvableType.forClassWithGenerics(List.class, String.class).getType()));
+		assertFalse(CatalogProtobufEncoder.supports(String.class));
+	}
+
+	private static byte[] encode(Object value, java.lang.reflect.Type type) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CatalogProtobufEncoder.write(value, type, out);
+		return out.toByteArray();
+	}
+}
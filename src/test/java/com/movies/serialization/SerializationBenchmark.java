@@ -0,0 +1,130 @@
+package com.movies.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.movies.DTOs.MovieMinimalDTO;
+import com.movies.entities.Actor;
+import com.movies.entities.Genre;
+import com.movies.entities.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload size, encoding time and allocation of each response format for a list page and for full movies.
+ * Run with: mvn test -Dtest=SerializationBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SerializationBenchmark {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 50_000;
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private interface Encoder {
+		void encode(Object value, Type type, ByteArrayOutputStream out) throws Exception;
+	}
+
+	@Test
+	void compareFormats() throws Exception {
+		List<MovieMinimalDTO> summaries = new ArrayList<>();
+		for (int i = 1; i <= 100; i++) {
+			summaries.add(new MovieMinimalDTO((long) i, "Movie title number " + i, 1950 + i % 70, 80 + i % 60));
+		}
+		PageImpl<MovieMinimalDTO> summaryPage = new PageImpl<>(summaries, PageRequest.of(0, 100), 10_000);
+
+		List<Movie> movies = new ArrayList<>();
+		for (int i = 1; i <= 20; i++) {
+			movies.add(movie(i));
+		}
+		PageImpl<Movie> moviePage = new PageImpl<>(movies, PageRequest.of(0, 20), 10_000);
+
+		ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+		ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+		ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+		List<String> names = List.of("json", "json-page", "cbor", "smile", "protobuf");
+		List<Encoder> encoders = List.of(
+				(value, type, out) -> json.writeValue(out, value),
+				(value, type, out) -> {
+					// The dedicated list page writer where it applies, Jackson otherwise
+					try (JsonGenerator generator = json.getFactory().createGenerator(out)) {
+						if (value instanceof Page<?> page && !(page.getContent().get(0) instanceof Movie)) {
+							CatalogJsonPageWriter.write(generator, page);
+						} else {
+							json.writeValue(generator, value);
+						}
+					}
+				},
+				(value, type, out) -> cbor.writeValue(out, value),
+				(value, type, out) -> smile.writeValue(out, value),
+				CatalogProtobufEncoder::write);
+
+		System.out.printf("%-28s %-9s %10s %10s %12s%n", "payload", "format", "bytes", "us/op", "alloc B/op");
+		measure("100 movie summaries (page)", summaryPage, ResolvableType.forClassWithGenerics(PageImpl.class, MovieMinimalDTO.class).getType(), names, encoders);
+		measure("20 full movies (page)", moviePage, ResolvableType.forClassWithGenerics(PageImpl.class, Movie.class).getType(), names, encoders);
+		measure("1 full movie", movies.get(0), Movie.class, names, encoders);
+	}
+
+	private static void measure(String label, Object value, Type type, List<String> names, List<Encoder> encoders) throws Exception {
+		for (int f = 0; f < encoders.size(); f++) {
+			Encoder encoder = encoders.get(f);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+			for (int i = 0; i < WARMUP; i++) {
+				out.reset();
+				encoder.encode(value, type, out);
+			}
+			long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				out.reset();
+				encoder.encode(value, type, out);
+			}
+			double micros = (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+			long allocated = (THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore) / ITERATIONS;
+			assertTrue(out.size() > 0);
+			System.out.printf("%-28s %-9s %10d %10.2f %12d%n", label, names.get(f), out.size(), micros, allocated);
+		}
+	}
+
+	private static Movie movie(int id) {
+		Set<Actor> actors = new LinkedHashSet<>();
+		for (int i = 0; i < 15; i++) {
+			Actor actor = new Actor();
+			ReflectionTestUtils.setField(actor, "id", (long) (id * 100 + i));
+			actor.setName("Actor name " + (id * 100 + i));
+			actors.add(actor);
+		}
+		Set<Genre> genres = new LinkedHashSet<>();
+		for (int i = 0; i < 4; i++) {
+			Genre genre = new Genre();
+			genre.setId((long) (i + 1));
+			genre.setName("Genre " + (i + 1));
+			genres.add(genre);
+		}
+		Movie movie = new Movie();
+		ReflectionTestUtils.setField(movie, "id", (long) id);
+		movie.setTitle("Movie title number " + id);
+		movie.setReleaseYear(1950 + id);
+		movie.setDuration(90 + id);
+		movie.setActors(actors);
+		movie.setGenres(genres);
+		return movie;
+	}
+}
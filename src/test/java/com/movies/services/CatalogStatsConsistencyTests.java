@@ -0,0 +1,134 @@
+package com.movies.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.DTOs.ActorDTO;
+import com.movies.DTOs.GenreDTO;
+import com.movies.DTOs.MovieDTO;
+import com.movies.ScratchDatabase;
+import com.movies.repositories.CatalogStatsRepository;
+import com.movies.repositories.MovieAssociationRepository.Association;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every mutation path keeps the /api/stats tables equal to what a full rebuild computes from the catalog
+@SpringBootTest
+class CatalogStatsConsistencyTests {
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private ActorService actorService;
+
+	@Autowired
+	private GenreService genreService;
+
+	@Autowired
+	private CatalogStatsRepository catalogStatsRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("stats-consistency-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@Test
+	void incrementalStatsMatchARebuild() throws Exception {
+		String suffix = UUID.randomUUID().toString();
+		assertMatchesRebuild("initial state");
+
+		long first = movieService.createMovieWithAssociations(movie("""
+				{"title": "First %s", "releaseYear": 1999, "duration": 101, "actorIds": [1, 2], "genreIds": [1],
+				 "actors": [{"name": "New actor %s", "birthDate": "1980-01-01"}], "genres": [{"name": "New genre %s"}]}
+				""".formatted(suffix, suffix, suffix))).getId();
+		long second = movieService.createMovieWithAssociations(movie("""
+				{"title": "Second %s", "releaseYear": 1999, "duration": 87, "actorIds": [2, 3], "genreIds": [1, 2]}
+				""".formatted(suffix))).getId();
+		assertMatchesRebuild("create");
+
+		movieService.updateMovieWithAssociations(first, movie("""
+				{"releaseYear": 2001, "duration": 120, "actorIds": [3, 4], "genreIds": [2, 3]}
+				"""), null);
+		assertMatchesRebuild("update");
+
+		movieService.addActorToMovie(second, 5L);
+		movieService.addGenreToMovie(second, 4L);
+		assertMatchesRebuild("single link added");
+		movieService.removeActorFromMovie(second, 2L);
+		movieService.removeGenreFromMovie(second, 1L);
+		assertMatchesRebuild("single link removed");
+
+		movieService.addAssociations(first, Association.ACTORS, Arrays.asList(6L, 7L, 3L));
+		movieService.addAssociations(first, Association.GENRES, Arrays.asList(5L));
+		assertMatchesRebuild("bulk add");
+		movieService.removeAssociations(first, Association.ACTORS, Arrays.asList(6L, 8L));
+		assertMatchesRebuild("bulk remove");
+		movieService.replaceAssociations(second, Association.ACTORS, Arrays.asList(1L, 7L));
+		movieService.replaceAssociations(second, Association.GENRES, Arrays.asList(6L));
+		assertMatchesRebuild("bulk replace");
+
+		long actor = actorService.createActor(actor("""
+				{"name": "Linked actor %s", "birthDate": "1970-05-05", "movieIds": [%d, %d]}
+				""".formatted(suffix, first, second))).getId();
+		long genre = genreService.createGenre(genre("""
+				{"name": "Linked genre %s", "movieIds": [%d]}
+				""".formatted(suffix, first))).getId();
+		assertMatchesRebuild("actor and genre created with movies");
+		actorService.partialUpdateActor(actor, actor("""
+				{"movieIds": [%d, 1]}
+				""".formatted(second)), null);
+		genreService.partialUpdateGenre(genre, genre("""
+				{"movieIds": [%d, 2]}
+				""".formatted(second)), null);
+		assertMatchesRebuild("actor and genre relinked");
+
+		actorService.deleteActor(actor, true, null);
+		genreService.deleteGenre(genre, true, null);
+		assertMatchesRebuild("actor and genre force-deleted");
+		movieService.deleteMovie(second, true, null);
+		movieService.deleteMovie(first, true, null);
+		assertMatchesRebuild("movies force-deleted");
+	}
+
+	private void assertMatchesRebuild(String step) {
+		List<String> incremental = snapshot();
+		catalogStatsRepository.rebuild();
+		assertEquals(snapshot(), incremental, "after " + step);
+	}
+
+	private List<String> snapshot() {
+		List<String> rows = new ArrayList<>();
+		catalogStatsRepository.findYears().forEach(year ->
+				rows.add("year " + year.getReleaseYear() + ": " + year.getMovieCount() + " / " + year.getAverageDuration()));
+		for (Association association : Association.values()) {
+			catalogStatsRepository.findAll(association).forEach(stats ->
+					rows.add(association + " " + stats.getId() + ": " + stats.getMovieCount() + " / " + stats.getAverageDuration()));
+		}
+		return rows;
+	}
+
+	private MovieDTO movie(String json) throws Exception {
+		return objectMapper.readValue(json, MovieDTO.class);
+	}
+
+	private ActorDTO actor(String json) throws Exception {
+		return objectMapper.readValue(json, ActorDTO.class);
+	}
+
+	private GenreDTO genre(String json) throws Exception {
+		return objectMapper.readValue(json, GenreDTO.class);
+	}
+}
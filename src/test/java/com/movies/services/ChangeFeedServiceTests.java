@@ -0,0 +1,134 @@
+package com.movies.services;
+
+import com.movies.DTOs.ChangeDTO;
+import com.movies.DTOs.ChangeFeedPage;
+import com.movies.DTOs.GenreDTO;
+import com.movies.ScratchDatabase;
+import com.movies.interfaces.GenreRepository;
+import com.movies.repositories.ChangeLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The change log behind GET /api/changes: gapless paging, entries that commit with their change, and compaction
+@SpringBootTest(properties = "movies.changes.compaction-interval=P1D")
+class ChangeFeedServiceTests {
+
+	@Autowired
+	private ChangeFeedService changeFeedService;
+
+	@Autowired
+	private ChangeLogRepository changeLogRepository;
+
+	@Autowired
+	private GenreService genreService;
+
+	@Autowired
+	private GenreRepository genreRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = ScratchDatabase.copy("change-feed-tests");
+		registry.add("spring.datasource.url", () -> url);
+	}
+
+	@Test
+	void pagesAreGaplessAndIncreasing() {
+		long start = changeLogRepository.findHead();
+		for (int i = 0; i < 7; i++) {
+			genreService.createGenre(genre("Paged " + UUID.randomUUID()));
+		}
+
+		List<Long> seen = new ArrayList<>();
+		long since = start;
+		ChangeFeedPage page;
+		do {
+			page = changeFeedService.getChanges(since, 3);
+			assertFalse(page.isResyncRequired());
+			page.getChanges().forEach(change -> seen.add(change.getSeq()));
+			since = page.getNextSince();
+		} while (page.isHasMore());
+
+		assertEquals(7, seen.size());
+		for (int i = 0; i < seen.size(); i++) {
+			assertEquals(start + 1 + i, seen.get(i), "sequence numbers " + seen);
+		}
+		assertEquals(start + 7, since);
+		assertTrue(changeFeedService.getChanges(since, 3).getChanges().isEmpty());
+	}
+
+	@Test
+	void rolledBackWriteLeavesNoEntry() {
+		long head = changeLogRepository.findHead();
+		String name = "Rolled back " + UUID.randomUUID();
+
+		transactionTemplate.executeWithoutResult(transaction -> {
+			genreService.createGenre(genre(name));
+			// Written in the same transaction as the genre
+			assertEquals(1, changeLogRepository.findAfter(head, 10).size());
+			transaction.setRollbackOnly();
+		});
+
+		assertTrue(changeLogRepository.findAfter(head, 10).isEmpty());
+		assertTrue(genreRepository.findByName(name).isEmpty());
+	}
+
+	@Test
+	void compactionKeepsTheLatestEntryPerEntity() {
+		long head = changeLogRepository.findHead();
+		Instant old = Instant.now().minusSeconds(3600);
+		changeLogRepository.append("GENRE", 900_001, "CREATED", old);
+		changeLogRepository.append("GENRE", 900_002, "CREATED", old);
+		changeLogRepository.append("GENRE", 900_001, "UPDATED", old.plusSeconds(1));
+		changeLogRepository.append("GENRE", 900_001, "LINKS_CHANGED", old.plusSeconds(2));
+
+		assertTrue(changeLogRepository.removeSuperseded(Instant.now()) >= 2);
+
+		List<ChangeDTO> left = changeLogRepository.findAfter(head, 10);
+		assertEquals(List.of("900002 CREATED", "900001 LINKS_CHANGED"),
+				left.stream().map(change -> change.getEntityId() + " " + change.getChangeType()).toList());
+		assertEquals(head + 4, left.get(1).getSeq());
+		assertEquals(head + 4, changeLogRepository.findHead());
+	}
+
+	@Test
+	void sinceBeforeAnExpiredDeletionRequiresResync() {
+		long id = genreService.createGenre(genre("Expiring " + UUID.randomUUID())).getId();
+		long beforeDelete = changeLogRepository.findHead();
+		genreService.deleteGenre(id, false, null);
+		long deletion = changeLogRepository.findHead();
+
+		assertEquals(deletion, changeLogRepository.expireDeletions(Instant.now().plusSeconds(1)));
+		changeFeedService.loadExpiredThrough();
+
+		ChangeFeedPage stale = changeFeedService.getChanges(beforeDelete, 10);
+		assertTrue(stale.isResyncRequired());
+		assertTrue(stale.getChanges().isEmpty());
+		assertEquals(deletion, stale.getNextSince());
+
+		ChangeFeedPage current = changeFeedService.getChanges(deletion, 10);
+		assertFalse(current.isResyncRequired());
+		assertTrue(current.getChanges().isEmpty());
+	}
+
+	private static GenreDTO genre(String name) {
+		GenreDTO genreDTO = new GenreDTO();
+		genreDTO.setName(name);
+		return genreDTO;
+	}
+}
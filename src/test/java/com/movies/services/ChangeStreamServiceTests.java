@@ -0,0 +1,225 @@
+package com.movies.services;
+
+import com.movies.DTOs.ChangeDTO;
+import com.movies.events.CatalogChangeEvent;
+import com.movies.repositories.ChangeLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Drives the stream with a four-change buffer and one sender thread, against an in-memory change log
+class ChangeStreamServiceTests {
+
+	private static final CatalogChangeEvent COMMIT = CatalogChangeEvent.movie(1, CatalogChangeEvent.ChangeType.UPDATED);
+
+	private final List<ChangeDTO> log = new CopyOnWriteArrayList<>();
+	private final ChangeLogRepository changeLogRepository = mock(ChangeLogRepository.class);
+	private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private ChangeStreamService service;
+
+	@BeforeEach
+	void setUp() {
+		when(changeLogRepository.findAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+			long since = invocation.getArgument(0);
+			int limit = invocation.getArgument(1);
+			return log.stream().filter(change -> change.getSeq() > since).limit(limit).toList();
+		});
+		when(changeLogRepository.findHead()).thenAnswer(invocation -> log.isEmpty() ? 0L : log.get(log.size() - 1).getSeq());
+		service = new ChangeStreamService(changeLogRepository, changeFeedService, meterRegistry, 4, 1, Duration.ofMinutes(1)) {
+			@Override
+			SseEmitter newEmitter() {
+				return new RecordingEmitter();
+			}
+		};
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void overflowDropsTheBufferAndSendsResyncFromTheLastChangeSent() throws Exception {
+		service.start();
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(null);
+		emitter.gate = new CountDownLatch(1);
+
+		commit(1);
+		assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+		// Change 1 is being written; 2 to 5 fill the buffer and 6 overflows it
+		commit(2, 3, 4, 5, 6, 7);
+		await(() -> meterRegistry.get("movies.changes.stream.resyncs").counter().count() == 1);
+		emitter.gate.countDown();
+
+		assertEquals("change 1", emitter.next());
+		assertEquals("resync 1", emitter.next());
+		commit(8);
+		assertEquals("change 8", emitter.next());
+		assertNull(emitter.events.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void replayHandsOverToLiveDeliveryWithoutGapsOrDuplicates() throws Exception {
+		append(1, 2, 3);
+		service.start();
+		// Committed but not dispatched yet: replay stops before it and live delivery sends it
+		append(4);
+		RecordingEmitter resumed = (RecordingEmitter) service.subscribe(1L);
+		RecordingEmitter fresh = (RecordingEmitter) service.subscribe(null);
+		service.onCatalogChange(COMMIT);
+		commit(5);
+
+		assertEquals(List.of("change 2", "change 3", "change 4", "change 5"), resumed.next(4));
+		assertEquals(List.of("change 4", "change 5"), fresh.next(2));
+		assertNull(resumed.events.poll(200, TimeUnit.MILLISECONDS));
+		assertNull(fresh.events.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void resumingFromACompactedPositionStartsWithResync() throws Exception {
+		append(1, 2, 3);
+		when(changeFeedService.isExpired(anyLong())).thenAnswer(invocation -> (long) invocation.getArgument(0) < 2);
+		service.start();
+
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(1L);
+		assertEquals("resync 1", emitter.next());
+		commit(4);
+		assertEquals("change 4", emitter.next());
+	}
+
+	@Test
+	void backlogLongerThanTheBufferStartsWithResync() throws Exception {
+		append(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		service.start();
+
+		RecordingEmitter emitter = (RecordingEmitter) service.subscribe(2L);
+		assertEquals("resync 2", emitter.next());
+		commit(11);
+		assertEquals("change 11", emitter.next());
+		assertEquals(1, meterRegistry.get("movies.changes.stream.resyncs").counter().count());
+	}
+
+	@Test
+	void heartbeatRemovesSubscribersThatCannotBeWritten() throws Exception {
+		service.start();
+		RecordingEmitter alive = (RecordingEmitter) service.subscribe(null);
+		RecordingEmitter gone = (RecordingEmitter) service.subscribe(null);
+		await(() -> subscribers() == 2);
+		gone.failing = true;
+
+		service.heartbeat();
+		assertEquals("heartbeat", alive.next());
+		await(() -> subscribers() == 1);
+		assertTrue(gone.completedWithError);
+
+		commit(1);
+		assertEquals("change 1", alive.next());
+	}
+
+	private void append(long... seqs) {
+		for (long seq : seqs) {
+			log.add(new ChangeDTO(seq, "MOVIE", seq, "UPDATED", Instant.EPOCH));
+		}
+	}
+
+	private void commit(long... seqs) {
+		append(seqs);
+		service.onCatalogChange(COMMIT);
+	}
+
+	private double subscribers() {
+		return meterRegistry.get("movies.changes.stream.subscribers").gauge().value();
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "condition not reached in time");
+			Thread.onSpinWait();
+		}
+	}
+
+	// Records each event as "change <seq>", "resync <since>" or "heartbeat"
+	private static final class RecordingEmitter extends SseEmitter {
+		final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		final CountDownLatch sending = new CountDownLatch(1);
+		// When set, sends wait for it
+		volatile CountDownLatch gate;
+		volatile boolean failing;
+		volatile boolean completedWithError;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			sending.countDown();
+			CountDownLatch current = gate;
+			if (current != null) {
+				try {
+					current.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			events.add(describe(builder));
+		}
+
+		@Override
+		public void completeWithError(Throwable ex) {
+			completedWithError = true;
+			super.completeWithError(ex);
+		}
+
+		String next() throws InterruptedException {
+			String event = events.poll(5, TimeUnit.SECONDS);
+			assertTrue(event != null, "no event sent in time");
+			return event;
+		}
+
+		List<String> next(int count) throws InterruptedException {
+			List<String> received = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				received.add(next());
+			}
+			return received;
+		}
+
+		private static String describe(SseEventBuilder builder) {
+			for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+				if (part.getData() instanceof ChangeDTO change) {
+					return "change " + change.getSeq();
+				}
+				if (part.getData() instanceof Map<?, ?> resync) {
+					return "resync " + resync.get("since");
+				}
+			}
+			return "heartbeat";
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.movies.similarity;
+
+import com.movies.events.CatalogChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashIndexTests {
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private MinHashIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table movie_actor (movie_id integer, actor_id integer)");
+		jdbcTemplate.execute("create table movie_genre (movie_id integer, genre_id integer)");
+		// Against movie 1: movie 2 is identical, movie 3 shares 3 of 4 features, movie 4 one of 4, movie 5 none
+		jdbcTemplate.execute("insert into movie_actor values (1, 1), (1, 2), (1, 3), (2, 1), (2, 2), (2, 3), "
+				+ "(3, 1), (3, 2), (4, 1), (5, 9)");
+		jdbcTemplate.execute("insert into movie_genre values (1, 1), (2, 1), (3, 1), (5, 2)");
+		index = new MinHashIndex(jdbcTemplate, new SimpleMeterRegistry());
+		index.load();
+	}
+
+	@AfterEach
+	void tearDown() {
+		index.shutdown();
+		dataSource.destroy();
+	}
+
+	@Test
+	void signatureDependsOnlyOnTheFeatureSet() {
+		int[] signature = MinHashIndex.signature(new long[]{2, 4, 3});
+		assertEquals(MinHashIndex.BANDS * MinHashIndex.ROWS, signature.length);
+		assertArrayEquals(signature, MinHashIndex.signature(new long[]{3, 2, 4}));
+		assertArrayEquals(signature, MinHashIndex.signature(new long[]{2, 4, 3}));
+		assertFalse(Arrays.equals(signature, MinHashIndex.signature(new long[]{2, 4, 5})));
+
+		long[] bandKeys = MinHashIndex.bandKeys(signature);
+		assertEquals(MinHashIndex.BANDS, bandKeys.length);
+		assertArrayEquals(bandKeys, MinHashIndex.bandKeys(MinHashIndex.signature(new long[]{4, 3, 2})));
+	}
+
+	@Test
+	void compareCountsSharedActorsAndGenres() {
+		// actors 1, 2 and genre 1 against actors 1, 3 and genres 1, 2
+		MinHashIndex.Match match = MinHashIndex.compare(7, new long[]{2, 3, 4}, new long[]{2, 3, 5, 6});
+		assertEquals(new MinHashIndex.Match(7, 0.4, 1, 1), match);
+
+		MinHashIndex.Match disjoint = MinHashIndex.compare(8, new long[]{2}, new long[]{3});
+		assertEquals(new MinHashIndex.Match(8, 0.0, 0, 0), disjoint);
+	}
+
+	@Test
+	void candidatesAreRankedByExactSimilarity() {
+		assertEquals(List.of(
+				new MinHashIndex.Match(2, 1.0, 3, 1),
+				new MinHashIndex.Match(3, 0.75, 2, 1),
+				new MinHashIndex.Match(4, 0.25, 1, 0)), index.similarTo(1, 10, 100));
+		assertEquals(List.of(2, 3), index.similarTo(1, 2, 100).stream().map(MinHashIndex.Match::movieId).toList());
+		assertEquals(List.of(), index.similarTo(5, 10, 100));
+		assertEquals(List.of(), index.similarTo(42, 10, 100));
+	}
+
+	@Test
+	void committedLinkChangesAreApplied() {
+		jdbcTemplate.execute("delete from movie_actor where movie_id = 3");
+		jdbcTemplate.execute("delete from movie_genre where movie_id = 3");
+		jdbcTemplate.execute("insert into movie_actor values (6, 1), (6, 2), (6, 3)");
+		index.onCatalogChange(CatalogChangeEvent.movie(3, CatalogChangeEvent.ChangeType.DELETED));
+		index.onCatalogChange(CatalogChangeEvent.movie(6, CatalogChangeEvent.ChangeType.CREATED));
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (index.similarTo(6, 10, 100).isEmpty()) {
+			assertTrue(System.currentTimeMillis() < deadline, "change was not applied in time");
+			Thread.onSpinWait();
+		}
+		assertEquals(List.of(2, 6, 4), index.similarTo(1, 10, 100).stream().map(MinHashIndex.Match::movieId).toList());
+	}
+}
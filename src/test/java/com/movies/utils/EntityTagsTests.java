@@ -0,0 +1,56 @@
+package com.movies.utils;
+
+import com.movies.exceptions.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntityTagsTests {
+
+	@Test
+	void eachFormatGetsItsOwnTag() {
+		assertEquals("\"3-5-7\"", EntityTags.negotiated("\"3-5-7\"", request(HttpHeaders.ACCEPT, null)));
+		assertEquals("\"3\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "*/*")));
+		assertEquals("\"3\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "application/json")));
+		assertEquals("\"3+cbor\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "application/cbor")));
+		assertEquals("\"3+smile\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "application/x-jackson-smile")));
+		assertEquals("\"3-5-7+protobuf\"", EntityTags.negotiated("\"3-5-7\"", request(HttpHeaders.ACCEPT, "application/x-protobuf")));
+	}
+
+	@Test
+	void acceptQualityAndSpecificityDecide() {
+		assertEquals("\"3+cbor\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor")));
+		assertEquals("\"3+smile\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "*/*, application/x-jackson-smile")));
+		assertEquals("\"3\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "text/html, */*;q=0.8")));
+		assertEquals("\"3\"", EntityTags.negotiated("\"3\"", request(HttpHeaders.ACCEPT, "not a media type")));
+	}
+
+	@Test
+	void ifMatchMayCarryTheTagOfAnyFormat() {
+		EntityTags.requireMatch(null, "\"3\"");
+		EntityTags.requireMatch("*", "\"3\"");
+		EntityTags.requireMatch("\"3\"", "\"3\"");
+		EntityTags.requireMatch("\"3+cbor\"", "\"3\"");
+		EntityTags.requireMatch("\"2\", \"3-5-7+protobuf\"", "\"3-5-7\"");
+	}
+
+	@Test
+	void staleOrWeakIfMatchFails() {
+		assertThrows(PreconditionFailedException.class, () -> EntityTags.requireMatch("\"2\"", "\"3\""));
+		assertThrows(PreconditionFailedException.class, () -> EntityTags.requireMatch("\"2+smile\"", "\"3\""));
+		assertThrows(PreconditionFailedException.class, () -> EntityTags.requireMatch("W/\"3\"", "\"3\""));
+	}
+
+	private static WebRequest request(String header, String value) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if (value != null) {
+			request.addHeader(header, value);
+		}
+		return new ServletWebRequest(request);
+	}
+}